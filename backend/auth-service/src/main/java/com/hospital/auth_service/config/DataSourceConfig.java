@@ -0,0 +1,39 @@
+package com.hospital.auth_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sizes the Hikari pool as a fixed pool of {@code auth.datasource.pool-size} connections, or with 0,
+ * two per processor plus one. Past that point extra connections only queue up inside Postgres, while
+ * a request waiting for a connection shows up in {@code hikaricp.connections.pending} and
+ * {@code hikaricp.connections.acquire}.
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(@Value("${auth.datasource.pool-size:0}") int poolSize) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int size = poolSize(poolSize, Runtime.getRuntime().availableProcessors());
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    log.info("Sizing connection pool {} at {} connections", dataSource.getPoolName(), size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(int configured, int processors) {
+        return configured > 0 ? configured : processors * 2 + 1;
+    }
+}
@@ -1,20 +1,37 @@
 package com.hospital.auth_service.config;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtConfig {
 
+    private static final String SECRET_PROPERTY = "jwt.secret";
+    private static final String PRIVATE_KEY_PROPERTY = "jwt.signing.private-key";
+    private static final String PUBLIC_KEY_PROPERTY = "jwt.signing.public-key";
+    private static final String HMAC_ALGORITHM = "HS256";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String FAMILY_ID_CLAIM = "fam";
+
+    private final Environment environment;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,30 +41,136 @@ public class JwtConfig {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
-    private SecretKey getSigningKey(){
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm;
+
+    @Value("${jwt.signing.private-key:}")
+    private String privateKeyLocation;
+
+    @Value("${jwt.signing.public-key:}")
+    private String publicKeyLocation;
+
+    @Value("${jwt.signing.generate-key-pair:false}")
+    private boolean generateKeyPair;
+
+    @Value("${jwt.signing.legacy-hmac-until:}")
+    private String legacyHmacUntil;
+
+    private volatile JwtKeyRing keyRing;
+
+    @PostConstruct
+    void initKeys() {
+        if (HMAC_ALGORITHM.equals(signingAlgorithm)) {
+            keyRing = JwtKeyRing.of(secret);
+            return;
+        }
+        SignatureAlgorithm algorithm = PemKeys.algorithm(signingAlgorithm);
+        KeyPair keyPair;
+        if (privateKeyLocation.isBlank() || publicKeyLocation.isBlank()) {
+            // Every instance must sign with the same pair, or tokens fail on the others and after a restart
+            if (!generateKeyPair) {
+                throw new IllegalStateException("jwt.signing.algorithm=" + signingAlgorithm
+                        + " needs jwt.signing.private-key and jwt.signing.public-key, shared by every instance"
+                        + " (JWT_PRIVATE_KEY and JWT_PUBLIC_KEY), or the dev profile's"
+                        + " jwt.signing.generate-key-pair=true for a single local instance");
+            }
+            log.warn("No {} key pair configured, generated one for this instance; tokens will not survive a restart"
+                    + " or validate on another instance", signingAlgorithm);
+            keyPair = PemKeys.generate(algorithm);
+        } else {
+            keyPair = PemKeys.read(privateKeyLocation, publicKeyLocation, algorithm);
+        }
+        Instant legacyUntil = legacyHmacUntil.isBlank() ? null : Instant.parse(legacyHmacUntil.trim());
+        keyRing = JwtKeyRing.of(keyPair, algorithm, secret, legacyUntil);
+        log.info("Signing JWTs with {} key id {}", signingAlgorithm, keyRing.currentKeyId());
+        if (legacyUntil != null) {
+            log.info("Accepting HS256 tokens signed with jwt.secret until {}", legacyUntil);
+        }
+    }
+
+    /**
+     * Switches signing to {@code newSecret} without a restart. Tokens signed with the previous key
+     * keep validating until they expire.
+     */
+    public synchronized void rotateSigningKey(String newSecret) {
+        swap(keyRing.rotate(newSecret));
+    }
+
+    /**
+     * Switches asymmetric signing to {@code keyPair}. The previous public key stays in the JWKS so
+     * verifiers keep accepting tokens it signed.
+     */
+    public synchronized void rotateSigningKey(KeyPair keyPair) {
+        swap(keyRing.rotate(keyPair, PemKeys.algorithm(signingAlgorithm)));
+    }
+
+    private void swap(JwtKeyRing rotated) {
+        if (rotated != keyRing) {
+            keyRing = rotated;
+            log.info("Rotated JWT signing key, new key id {}", rotated.currentKeyId());
+        }
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (!keyRing.isAsymmetric()) {
+            if (event.getKeys().contains(SECRET_PROPERTY)) {
+                String newSecret = environment.getProperty(SECRET_PROPERTY);
+                if (newSecret != null) {
+                    rotateSigningKey(newSecret);
+                }
+            }
+            return;
+        }
+        if (event.getKeys().contains(PRIVATE_KEY_PROPERTY) || event.getKeys().contains(PUBLIC_KEY_PROPERTY)) {
+            String privateKey = environment.getProperty(PRIVATE_KEY_PROPERTY);
+            String publicKey = environment.getProperty(PUBLIC_KEY_PROPERTY);
+            if (privateKey != null && !privateKey.isBlank() && publicKey != null && !publicKey.isBlank()) {
+                rotateSigningKey(PemKeys.read(privateKey, publicKey, PemKeys.algorithm(signingAlgorithm)));
+            }
+        }
+    }
+
+    /**
+     * Public signing keys as a JWKS document, for services that verify tokens locally.
+     */
+    public String jwks() {
+        return keyRing.jwksJson();
     }
 
     public String generateToken(String email, String role){
+        return generateToken(null, email, role);
+    }
+
+    /**
+     * Issues an access token carrying the user id as the {@code uid} claim, so the gateway can
+     * forward it downstream without a lookup.
+     */
+    public String generateToken(UUID userId, String email, String role){
         Instant now = Instant.now();
         Instant expiryDate = now.plusMillis(expiration);
-        return Jwts.builder()
+        return keyRing.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
                 .claim("role", role)
+                .claim(USER_ID_CLAIM, userId != null ? userId.toString() : null)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
                 .compact();
     }
 
-    public String generateRefreshToken(String email){
+    /**
+     * Issues refresh token {@code tokenId} of family {@code familyId}, see {@code RefreshTokenStore}.
+     */
+    public String generateRefreshToken(String email, UUID familyId, String tokenId){
         Instant now = Instant.now();
         Instant expiryDate = now.plusMillis(refreshExpiration);
-        return Jwts.builder()
+        return keyRing.builder()
+                .id(tokenId)
+                .claim(FAMILY_ID_CLAIM, familyId.toString())
                 .subject(email)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
-                .signWith(getSigningKey())
                 .compact();
     }
 
@@ -65,24 +188,30 @@ public class JwtConfig {
     }
 
     private Claims extractClaims(String token){
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return keyRing.parser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private Boolean isTokenExpired(String token){
-        return extractExpiration(token).before(Date.from(Instant.now()));
-    }
-
-    private Date extractExpiration(String token){
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifies the signature and expiry of {@code token} with a single parse.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public ValidatedToken validate(String token) {
+        Claims claims = extractClaims(token);
+        return new ValidatedToken(
+                claims.getId(),
+                claims.get(FAMILY_ID_CLAIM, String.class),
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, String.class),
+                claims.get("role", String.class),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
     }
 
     public Boolean validateToken(String token, String email){
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        return validate(token).getSubject().equals(email);
     }
 
 }
@@ -0,0 +1,222 @@
+package com.hospital.auth_service.config;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the JWT signing keys. The signing key, the parser and the published JWKS
+ * document are derived once per snapshot and shared by every request; {@link JwtConfig} swaps in a
+ * new snapshot when the key rotates.
+ * <p>
+ * An HMAC ring signs and verifies with the shared secret. An asymmetric ring signs with a private key,
+ * publishes the public halves so other services can verify on their own, and can still accept
+ * HMAC tokens issued before the switch until a set cut-off.
+ */
+final class JwtKeyRing {
+
+    private final String currentKeyId;
+    private final Key signingKey;
+    private final SignatureAlgorithm signatureAlgorithm;
+    private final SecretKey legacyKey;
+    private final Instant legacyUntil;
+    private final Map<String, Key> verificationKeys;
+    private final List<PublicJwk<?>> publishedKeys;
+    private final String jwksJson;
+    private final JwtParser parser;
+
+    private JwtKeyRing(String currentKeyId, Key signingKey, SignatureAlgorithm signatureAlgorithm, SecretKey legacyKey,
+                       Instant legacyUntil, Map<String, Key> verificationKeys, List<PublicJwk<?>> publishedKeys) {
+        this.currentKeyId = currentKeyId;
+        this.signingKey = signingKey;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.legacyKey = legacyKey;
+        this.legacyUntil = legacyUntil;
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+        this.publishedKeys = List.copyOf(publishedKeys);
+        this.jwksJson = this.publishedKeys.stream()
+                .map(Jwks::json)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        this.parser = Jwts.parser()
+                .keyLocator(new KeyIdLocator())
+                .build();
+    }
+
+    static JwtKeyRing of(String secret) {
+        SecretKey key = hmacKey(secret);
+        String keyId = keyId(key);
+        Map<String, Key> keys = new LinkedHashMap<>();
+        keys.put(keyId, key);
+        return new JwtKeyRing(keyId, key, null, key, null, keys, List.of());
+    }
+
+    /**
+     * Returns a ring signing with {@code keyPair} using {@code algorithm}. When both {@code legacySecret}
+     * and {@code legacyUntil} are set, HMAC tokens signed with the secret keep validating until that
+     * instant; otherwise they are rejected.
+     */
+    static JwtKeyRing of(KeyPair keyPair, SignatureAlgorithm algorithm, String legacySecret, Instant legacyUntil) {
+        PublicJwk<?> jwk = publicJwk(keyPair, algorithm);
+        Map<String, Key> keys = new LinkedHashMap<>();
+        keys.put(jwk.getId(), keyPair.getPublic());
+        SecretKey legacyKey = null;
+        if (legacySecret != null && !legacySecret.isBlank() && legacyUntil != null) {
+            legacyKey = hmacKey(legacySecret);
+            keys.put(keyId(legacyKey), legacyKey);
+        }
+        return new JwtKeyRing(jwk.getId(), keyPair.getPrivate(), algorithm, legacyKey,
+                legacyKey != null ? legacyUntil : null, keys, List.of(jwk));
+    }
+
+    /**
+     * Returns a new ring signing with {@code secret} that still verifies tokens issued with the
+     * current key, so tokens in flight survive the rotation until they expire. Tokens without a key id
+     * keep being checked against the ring's original secret, the only one they can have been signed with.
+     */
+    JwtKeyRing rotate(String secret) {
+        if (isAsymmetric()) {
+            throw new IllegalStateException("Ring signs with " + signatureAlgorithm.getId() + ", not a shared secret");
+        }
+        SecretKey key = hmacKey(secret);
+        String keyId = keyId(key);
+        if (keyId.equals(currentKeyId)) {
+            return this;
+        }
+        Map<String, Key> keys = new LinkedHashMap<>();
+        keys.put(keyId, key);
+        keys.put(currentKeyId, signingKey);
+        keys.put(keyId(legacyKey), legacyKey);
+        return new JwtKeyRing(keyId, key, null, legacyKey, null, keys, List.of());
+    }
+
+    /**
+     * Returns a new ring signing with {@code keyPair}. The current public key stays both trusted and
+     * published, so verifiers holding a cached JWKS keep accepting tokens in flight.
+     */
+    JwtKeyRing rotate(KeyPair keyPair, SignatureAlgorithm algorithm) {
+        PublicJwk<?> jwk = publicJwk(keyPair, algorithm);
+        if (jwk.getId().equals(currentKeyId)) {
+            return this;
+        }
+        Map<String, Key> keys = new LinkedHashMap<>();
+        keys.put(jwk.getId(), keyPair.getPublic());
+        keys.put(currentKeyId, verificationKeys.get(currentKeyId));
+        if (legacyKey != null) {
+            keys.put(keyId(legacyKey), legacyKey);
+        }
+        List<PublicJwk<?>> published = new ArrayList<>();
+        published.add(jwk);
+        publishedKeys.stream()
+                .filter(previous -> previous.getId().equals(currentKeyId))
+                .forEach(published::add);
+        return new JwtKeyRing(jwk.getId(), keyPair.getPrivate(), algorithm, legacyKey, legacyUntil, keys, published);
+    }
+
+    boolean isAsymmetric() {
+        return signatureAlgorithm != null;
+    }
+
+    String currentKeyId() {
+        return currentKeyId;
+    }
+
+    /**
+     * Starts a token carrying the current key id and signed with the current key.
+     */
+    JwtBuilder builder() {
+        JwtBuilder builder = Jwts.builder().header().keyId(currentKeyId).and();
+        if (signatureAlgorithm == null) {
+            return builder.signWith(signingKey);
+        }
+        return builder.signWith((PrivateKey) signingKey, signatureAlgorithm);
+    }
+
+    JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * The public keys as a JWKS document. Empty for an HMAC ring, whose secret must never be published.
+     */
+    String jwksJson() {
+        return jwksJson;
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PublicJwk<?> publicJwk(KeyPair keyPair, SignatureAlgorithm algorithm) {
+        return Jwks.builder()
+                .key(keyPair.getPublic())
+                .algorithm(algorithm.getId())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+    }
+
+    private static String keyId(SecretKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Encoders.BASE64URL.encode(Arrays.copyOf(digest, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class KeyIdLocator extends LocatorAdapter<Key> {
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            String keyId = header.getKeyId();
+            if (keyId == null) {
+                // Tokens issued before key ids were introduced
+                if (legacyKey == null) {
+                    throw new InvalidKeyException("Token has no key id");
+                }
+                return checkLegacyCutOff(legacyKey);
+            }
+            Key key = verificationKeys.get(keyId);
+            if (key == null) {
+                throw new InvalidKeyException("Unknown signing key id: " + keyId);
+            }
+            return checkLegacyCutOff(key);
+        }
+
+        private Key checkLegacyCutOff(Key key) {
+            if (legacyUntil != null && key == legacyKey && !Instant.now().isBefore(legacyUntil)) {
+                throw new InvalidKeyException("HMAC-signed tokens are no longer accepted since " + legacyUntil);
+            }
+            return key;
+        }
+
+        @Override
+        protected Key doLocate(Header header) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.hospital.auth_service.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Loads JWT signing key pairs from PEM files (PKCS#8 private key, X.509 public key) or generates
+ * one for the configured algorithm.
+ */
+final class PemKeys {
+
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader();
+
+    private PemKeys() {
+    }
+
+    static SignatureAlgorithm algorithm(String id) {
+        return switch (id) {
+            case "RS256" -> Jwts.SIG.RS256;
+            case "EdDSA" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalArgumentException("Unsupported asymmetric JWT algorithm: " + id);
+        };
+    }
+
+    static KeyPair generate(SignatureAlgorithm algorithm) {
+        if (algorithm == Jwts.SIG.EdDSA) {
+            return Jwks.CRV.Ed25519.keyPair().build();
+        }
+        return algorithm.keyPair().build();
+    }
+
+    static KeyPair read(String privateKeyLocation, String publicKeyLocation, SignatureAlgorithm algorithm) {
+        String keyAlgorithm = algorithm == Jwts.SIG.EdDSA ? "EdDSA" : "RSA";
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm);
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decode(privateKeyLocation, "PRIVATE KEY")));
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(decode(publicKeyLocation, "PUBLIC KEY")));
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot read " + keyAlgorithm + " key pair from "
+                    + privateKeyLocation + " and " + publicKeyLocation, e);
+        }
+    }
+
+    private static byte[] decode(String location, String type) {
+        Resource resource = RESOURCE_LOADER.getResource(location);
+        String pem;
+        try {
+            pem = resource.getContentAsString(StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + location, e);
+        }
+        String body = pem
+                .replace("-----BEGIN " + type + "-----", "")
+                .replace("-----END " + type + "-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+}
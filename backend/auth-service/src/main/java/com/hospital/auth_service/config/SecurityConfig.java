@@ -3,7 +3,11 @@ package com.hospital.auth_service.config;
 import com.hospital.auth_service.security.CustomUserDetailsService;
 import com.hospital.auth_service.security.GatewayAccessFilter;
 import com.hospital.auth_service.security.JwtAuthenticationFilter;
+import com.hospital.auth_service.security.OffloadingPasswordEncoder;
+import com.hospital.auth_service.security.PasswordEncoderFactory;
+import com.hospital.auth_service.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,25 +18,42 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 14;
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final GatewayAccessFilter gatewayAccessFilter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${auth.password.encoding:bcrypt}")
+    private String passwordEncoding;
+
+    @Value("${auth.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.latency-budget:250ms}")
+    private Duration passwordLatencyBudget;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordEncoderFactory.calibrateBcryptStrength(passwordLatencyBudget, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        return new OffloadingPasswordEncoder(PasswordEncoderFactory.create(passwordEncoding, strength), passwordHashingExecutor);
     }
 
     @Bean
@@ -50,6 +71,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -60,6 +82,11 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth->auth
                         .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/login/jwt",
                                 "/api/auth/login/basic", "/api/auth/refresh", "/api/auth/login/session").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        // Polled by the gateway itself, which GatewayAccessFilter already vouches for
+                        .requestMatchers("/internal/revocations").permitAll()
+                        .requestMatchers("/api/auth/register/batch").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
@@ -0,0 +1,57 @@
+package com.hospital.auth_service.config;
+
+import com.hospital.auth_service.session.InMemorySessionRepository;
+import com.hospital.auth_service.session.SessionWriteBehind;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.session.JdbcSessionDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.session.JdbcSessionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Serves HTTP sessions from {@link InMemorySessionRepository} when {@code auth.session.store=memory}.
+ * With {@code auth.session.store=jdbc} this backs off and Spring Boot stores every request's session
+ * changes in Postgres directly.
+ */
+@Configuration
+@EnableSpringHttpSession
+@EnableConfigurationProperties(JdbcSessionProperties.class)
+@ConditionalOnProperty(name = "auth.session.store", havingValue = "memory")
+public class SessionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "auth.session.write-behind.enabled", havingValue = "true")
+    public SessionWriteBehind sessionWriteBehind(JdbcTemplate jdbcTemplate,
+                                                 PlatformTransactionManager transactionManager,
+                                                 JdbcSessionProperties jdbcSessionProperties,
+                                                 @Value("${auth.session.write-behind.batch-size:500}") int batchSize) {
+        return new SessionWriteBehind(jdbcTemplate, new TransactionTemplate(transactionManager),
+                jdbcSessionProperties.getTableName(), batchSize);
+    }
+
+    // Spring Boot only creates the SPRING_SESSION tables for its own JDBC repository
+    @Bean
+    @ConditionalOnProperty(name = "auth.session.write-behind.enabled", havingValue = "true")
+    public JdbcSessionDataSourceScriptDatabaseInitializer sessionSchemaInitializer(DataSource dataSource,
+                                                                                 JdbcSessionProperties jdbcSessionProperties) {
+        return new JdbcSessionDataSourceScriptDatabaseInitializer(dataSource, jdbcSessionProperties);
+    }
+
+    @Bean
+    public InMemorySessionRepository sessionRepository(
+            @Value("${auth.session.shards:16}") int shards,
+            @Value("${spring.session.timeout:${server.servlet.session.timeout:30m}}") Duration timeout,
+            ObjectProvider<SessionWriteBehind> sessionWriteBehind) {
+        return new InMemorySessionRepository(shards, timeout, sessionWriteBehind.getIfAvailable());
+    }
+}
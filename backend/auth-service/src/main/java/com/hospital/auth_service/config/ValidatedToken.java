@@ -0,0 +1,19 @@
+package com.hospital.auth_service.config;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by {@link JwtConfig#validate(String)}.
+ */
+@Value
+public class ValidatedToken {
+    String tokenId;
+    String familyId;
+    String subject;
+    String userId;
+    String role;
+    Instant issuedAt;
+    Instant expiresAt;
+}
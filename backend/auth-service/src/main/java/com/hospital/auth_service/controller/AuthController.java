@@ -3,14 +3,19 @@ package com.hospital.auth_service.controller;
 import com.hospital.auth_service.service.AuthService;
 import com.hospital.common.dto.AuthRequest;
 import com.hospital.common.dto.AuthResponse;
+import com.hospital.common.dto.BatchRegistrationRequest;
+import com.hospital.common.dto.BatchRegistrationResult;
 import com.hospital.common.enums.UserRole;
 import jakarta.validation.Valid;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/auth")
@@ -22,6 +27,11 @@ public class AuthController {
         return ResponseEntity.ok(authService.register(request, role));
     }
 
+    @PostMapping("/register/batch")
+    public ResponseEntity<List<BatchRegistrationResult>> registerBatch(@RequestBody List<BatchRegistrationRequest> requests){
+        return ResponseEntity.ok(authService.registerBatch(requests));
+    }
+
     @PostMapping("/login/jwt")
     public ResponseEntity<AuthResponse> loginJwt(@Valid @RequestBody AuthRequest request){
         return ResponseEntity.ok(authService.loginJwt(request));
@@ -43,7 +53,10 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout(){
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request){
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
         return ResponseEntity.ok().build();
     }
 
@@ -0,0 +1,28 @@
+package com.hospital.auth_service.controller;
+
+import com.hospital.auth_service.config.JwtConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public JWT signing keys so the gateway and other services can verify tokens without
+ * calling auth-service per request.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+    private final JwtConfig jwtConfig;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(){
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtConfig.jwks());
+    }
+}
@@ -0,0 +1,37 @@
+package com.hospital.auth_service.controller;
+
+import com.hospital.auth_service.security.TokenDenylist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Token ids revoked before they expire, so the gateway can reject them at the edge. The gateway polls
+ * with the {@code asOf} of its previous response as {@code since} and gets only what changed.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RevocationFeedController {
+    private final TokenDenylist tokenDenylist;
+
+    @GetMapping(value = "/internal/revocations", produces = MediaType.APPLICATION_JSON_VALUE)
+    public RevocationFeed revocations(@RequestParam(required = false) Instant since){
+        // Taken before the query, so a revocation committed while it runs is in the next poll
+        Instant asOf = Instant.now();
+        List<Revocation> revocations = tokenDenylist.revokedSince(since != null ? since : Instant.EPOCH).stream()
+                .map(token -> new Revocation(token.getJti(), token.getExpiresAt()))
+                .toList();
+        return new RevocationFeed(asOf, revocations);
+    }
+
+    public record RevocationFeed(Instant asOf, List<Revocation> revocations) {
+    }
+
+    public record Revocation(String jti, Instant expiresAt) {
+    }
+}
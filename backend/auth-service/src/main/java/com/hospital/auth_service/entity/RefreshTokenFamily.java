@@ -0,0 +1,39 @@
+package com.hospital.auth_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The chain of refresh tokens descending from one login. Only {@code currentJti} may be exchanged;
+ * presenting any other token of the family means it was replayed, and the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_token_families_expires_at", columnList = "expiresAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenFamily {
+    @Id
+    private UUID familyId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false, length = 36)
+    private String currentJti;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+}
@@ -20,7 +20,7 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserChangeListener.class})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
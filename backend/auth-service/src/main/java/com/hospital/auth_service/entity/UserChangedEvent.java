@@ -0,0 +1,10 @@
+package com.hospital.auth_service.entity;
+
+import java.util.UUID;
+
+/**
+ * Published after a {@link User} row is inserted, updated or deleted so in-process caches keyed by
+ * id or email can drop their copy.
+ */
+public record UserChangedEvent(UUID id, String email) {
+}
@@ -0,0 +1,185 @@
+package com.hospital.auth_service.grpc;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
+import com.hospital.auth_service.security.ActiveUserCache;
+import com.hospital.auth_service.security.TokenDenylist;
+import com.hospital.common.proto.AuthServiceGrpc;
+import com.hospital.common.proto.GetUserByEmailRequest;
+import com.hospital.common.proto.GetUserRequest;
+import com.hospital.common.proto.GetUsersByIdsRequest;
+import com.hospital.common.proto.GetUsersResponse;
+import com.hospital.common.proto.UserResponse;
+import com.hospital.common.proto.ValidateTokenRequest;
+import com.hospital.common.proto.ValidateTokenResponse;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Token validation and user lookups for other services, applying the same checks as
+ * {@link com.hospital.auth_service.security.JwtAuthenticationFilter}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthGrpcService extends AuthServiceGrpc.AuthServiceImplBase {
+
+    private final JwtConfig jwtConfig;
+    private final UserLookupCache userLookupCache;
+    private final TokenDenylist tokenDenylist;
+    private final ActiveUserCache activeUserCache;
+
+    @Value("${auth.user-lookup.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Override
+    public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+        responseObserver.onNext(validate(request));
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Answers each request as it arrives, in order. Inbound messages are only requested while the
+     * caller keeps up with the responses, so a slow reader cannot make the server buffer unboundedly.
+     */
+    @Override
+    public StreamObserver<ValidateTokenRequest> validateTokens(StreamObserver<ValidateTokenResponse> responseObserver) {
+        ServerCallStreamObserver<ValidateTokenResponse> responses = (ServerCallStreamObserver<ValidateTokenResponse>) responseObserver;
+        responses.disableAutoRequest();
+        AtomicBoolean wasReady = new AtomicBoolean();
+        responses.setOnReadyHandler(() -> {
+            if (responses.isReady() && wasReady.compareAndSet(false, true)) {
+                responses.request(1);
+            }
+        });
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateTokenRequest request) {
+                responses.onNext(validate(request));
+                if (responses.isReady()) {
+                    responses.request(1);
+                } else {
+                    wasReady.set(false);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("ValidateTokens stream cancelled by client: {}", Status.fromThrowable(t));
+            }
+
+            @Override
+            public void onCompleted() {
+                responses.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void getUserById(GetUserRequest request, StreamObserver<UserResponse> responseObserver) {
+        UUID id = parseId(request.getUserId(), responseObserver);
+        if (id != null) {
+            respond(userLookupCache.findById(id), request.getUserId(), responseObserver);
+        }
+    }
+
+    @Override
+    public void getUserByEmail(GetUserByEmailRequest request, StreamObserver<UserResponse> responseObserver) {
+        respond(userLookupCache.findByEmail(request.getEmail()), request.getEmail(), responseObserver);
+    }
+
+    @Override
+    public void getUsersByIds(GetUsersByIdsRequest request, StreamObserver<GetUsersResponse> responseObserver) {
+        if (request.getUserIdsCount() > maxBatchSize) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + maxBatchSize + " user ids per request").asRuntimeException());
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(request.getUserIdsCount());
+        for (String userId : request.getUserIdsList()) {
+            UUID id = parseId(userId, responseObserver);
+            if (id == null) {
+                return;
+            }
+            ids.add(id);
+        }
+        userLookupCache.findAllById(ids).whenComplete((users, error) -> {
+            if (error != null) {
+                responseObserver.onError(lookupFailed(error));
+                return;
+            }
+            responseObserver.onNext(GetUsersResponse.newBuilder().addAllUsers(users).build());
+            responseObserver.onCompleted();
+        });
+    }
+
+    ValidateTokenResponse validate(ValidateTokenRequest request) {
+        ValidateTokenResponse.Builder response = ValidateTokenResponse.newBuilder()
+                .setRequestId(request.getRequestId());
+        ValidatedToken token;
+        try {
+            token = jwtConfig.validate(request.getToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            return response.setMessage("Invalid token").build();
+        }
+        // Refresh tokens carry no role and must not be accepted as access tokens
+        if (token.getRole() == null) {
+            return response.setMessage("Not an access token").build();
+        }
+        if (tokenDenylist.isRevoked(token.getTokenId())) {
+            return response.setMessage("Token has been revoked").build();
+        }
+        if (activeUserCache.isEnabled() && !activeUserCache.isActive(token.getSubject())) {
+            return response.setMessage("User is not active").build();
+        }
+        return response
+                .setValid(true)
+                .setUserId(token.getUserId() == null ? "" : token.getUserId())
+                .setEmail(token.getSubject())
+                .setRole(token.getRole())
+                .setMessage("Token is valid")
+                .build();
+    }
+
+    private static UUID parseId(String userId, StreamObserver<?> responseObserver) {
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Invalid user id: " + userId).asRuntimeException());
+            return null;
+        }
+    }
+
+    private static void respond(CompletableFuture<UserResponse> lookup, String key, StreamObserver<UserResponse> responseObserver) {
+        lookup.whenComplete((user, error) -> {
+            if (error != null) {
+                responseObserver.onError(lookupFailed(error));
+            } else if (user == null) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("User not found: " + key).asRuntimeException());
+            } else {
+                responseObserver.onNext(user);
+                responseObserver.onCompleted();
+            }
+        });
+    }
+
+    private static StatusRuntimeException lookupFailed(Throwable error) {
+        log.warn("User lookup failed", error);
+        return Status.UNAVAILABLE.withDescription("User lookup failed").asRuntimeException();
+    }
+}
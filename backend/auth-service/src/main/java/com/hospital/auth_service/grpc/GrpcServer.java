@@ -0,0 +1,124 @@
+package com.hospital.auth_service.grpc;
+
+import com.hospital.common.grpc.ServiceCredentialServerInterceptor;
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the gRPC services on {@code grpc.server.port}, next to the HTTP connector. Started after the
+ * application context is refreshed and drained on shutdown for up to {@code grpc.server.shutdown-grace-period}.
+ * <p>
+ * Calls do not pass the gateway's token checks, so each must carry {@code grpc.server.service-credential}.
+ * Without one the server only starts when {@code grpc.server.address} keeps it on the loopback interface.
+ */
+@Slf4j
+@Component
+public class GrpcServer implements SmartLifecycle {
+
+    private final List<BindableService> services;
+    private final boolean enabled;
+    private final int port;
+    private final String address;
+    private final String serviceCredential;
+    private final Duration keepAliveTime;
+    private final Duration shutdownGracePeriod;
+
+    private volatile Server server;
+
+    public GrpcServer(List<BindableService> services,
+                      @Value("${grpc.server.enabled:true}") boolean enabled,
+                      @Value("${grpc.server.port:9091}") int port,
+                      @Value("${grpc.server.address:}") String address,
+                      @Value("${grpc.server.service-credential:}") String serviceCredential,
+                      @Value("${grpc.server.permit-keep-alive-time:10s}") Duration keepAliveTime,
+                      @Value("${grpc.server.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+        this.services = services;
+        this.enabled = enabled;
+        this.port = port;
+        this.address = address;
+        this.serviceCredential = serviceCredential;
+        this.keepAliveTime = keepAliveTime;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        InetSocketAddress bindAddress = bindAddress();
+        NettyServerBuilder builder = NettyServerBuilder.forAddress(bindAddress)
+                // Clients keep long-lived channels open, let them ping to detect dead connections
+                .permitKeepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true);
+        if (!serviceCredential.isBlank()) {
+            builder.intercept(new ServiceCredentialServerInterceptor(serviceCredential));
+        } else if (!bindAddress.getAddress().isLoopbackAddress()) {
+            throw new IllegalStateException("grpc.server.service-credential must be set unless grpc.server.address"
+                    + " is a loopback address, gRPC calls bypass the gateway's token checks");
+        }
+        services.forEach(builder::addService);
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, e);
+        }
+        log.info("gRPC server started on {}:{} with {} service(s)", bindAddress.getHostString(), server.getPort(),
+                services.size());
+    }
+
+    private InetSocketAddress bindAddress() {
+        if (address.isBlank()) {
+            return new InetSocketAddress(port);
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getByName(address), port);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Unknown grpc.server.address " + address, e);
+        }
+    }
+
+    /**
+     * The port the server is bound to, which differs from {@code grpc.server.port} when that is 0.
+     */
+    int getPort() {
+        return server.getPort();
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
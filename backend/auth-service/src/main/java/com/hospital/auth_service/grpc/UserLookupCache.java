@@ -0,0 +1,158 @@
+package com.hospital.auth_service.grpc;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.common.proto.UserResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * User lookups served to other services over gRPC, cached as ready-to-send responses.
+ * <p>
+ * Lookups are single-flight: the first caller for a missing key runs the query on its own thread and
+ * everyone asking for the same key meanwhile waits on that caller's result, so a burst of identical
+ * lookups costs one query however many callers there are. Unknown users are not cached. Futures
+ * complete with {@code null} for them. A lookup that overlapped an invalidation hands its result to
+ * the callers that waited for it but does not leave it cached, since the row may have changed after
+ * it was read.
+ */
+@Component
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<UUID, UserResponse> byId;
+    private final AsyncCache<String, UserResponse> byEmail;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserLookupCache(UserRepository userRepository,
+                           @Value("${auth.user-lookup.max-size:10000}") long maxSize,
+                           @Value("${auth.user-lookup.ttl:30s}") Duration ttl,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, byId, "userLookupById");
+            CaffeineCacheMetrics.monitor(registry, byEmail, "userLookupByEmail");
+        });
+    }
+
+    public CompletableFuture<UserResponse> findById(UUID id) {
+        return singleFlight(byId, id, userRepository::findById);
+    }
+
+    public CompletableFuture<UserResponse> findByEmail(String email) {
+        return singleFlight(byEmail, email, userRepository::findByEmail);
+    }
+
+    /**
+     * Looks up many users at once. Ids neither cached nor already being loaded are fetched with a single
+     * {@code id in (...)} query; the result keeps request order, without duplicates or unknown ids.
+     */
+    public CompletableFuture<List<UserResponse>> findAllById(Collection<UUID> ids) {
+        Map<UUID, CompletableFuture<UserResponse>> lookups = new LinkedHashMap<>();
+        Map<UUID, CompletableFuture<UserResponse>> toLoad = new HashMap<>();
+        for (UUID id : ids) {
+            if (lookups.containsKey(id)) {
+                continue;
+            }
+            CompletableFuture<UserResponse> pending = new CompletableFuture<>();
+            CompletableFuture<UserResponse> existing = byId.asMap().putIfAbsent(id, pending);
+            lookups.put(id, existing != null ? existing : pending);
+            if (existing == null) {
+                toLoad.put(id, pending);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            long generation = invalidations.get();
+            try {
+                Map<UUID, UserResponse> found = userRepository.findAllById(toLoad.keySet()).stream()
+                        .collect(Collectors.toMap(User::getId, UserLookupCache::toResponse));
+                toLoad.forEach((id, pending) -> pending.complete(found.get(id)));
+            } catch (RuntimeException e) {
+                toLoad.values().forEach(pending -> pending.completeExceptionally(e));
+            }
+            if (invalidations.get() != generation) {
+                toLoad.forEach((id, pending) -> byId.asMap().remove(id, pending));
+            }
+        }
+
+        return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                .thenApply(done -> lookups.values().stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidations.incrementAndGet();
+        if (event.id() != null) {
+            byId.synchronous().invalidate(event.id());
+        }
+        if (event.email() != null) {
+            byEmail.synchronous().invalidate(event.email());
+        }
+    }
+
+    private <K> CompletableFuture<UserResponse> singleFlight(AsyncCache<K, UserResponse> cache, K key,
+                                                             Function<K, Optional<User>> query) {
+        CompletableFuture<UserResponse> pending = new CompletableFuture<>();
+        CompletableFuture<UserResponse> existing = cache.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing;
+        }
+        long generation = invalidations.get();
+        // Caffeine drops the entry again if it completes with null or an exception
+        try {
+            pending.complete(query.apply(key).map(UserLookupCache::toResponse).orElse(null));
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+        }
+        // Only this lookup's own entry: a newer one was loaded after the invalidation
+        if (invalidations.get() != generation) {
+            cache.asMap().remove(key, pending);
+        }
+        return pending;
+    }
+
+    static UserResponse toResponse(User user) {
+        return UserResponse.newBuilder()
+                .setId(user.getId().toString())
+                .setEmail(user.getEmail())
+                .setRole(user.getRole().name())
+                .setName(user.getName() == null ? "" : user.getName())
+                .setActive(String.valueOf(Boolean.TRUE.equals(user.getActive())))
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.hospital.auth_service.repository;
+
+import com.hospital.auth_service.entity.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, UUID> {
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into refresh_token_families (family_id, email, current_jti, expires_at, revoked)
+            values (:familyId, :email, :jti, :expiresAt, false)
+            """, nativeQuery = true)
+    int insert(@Param("familyId") UUID familyId, @Param("email") String email, @Param("jti") String jti,
+               @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Moves the family from {@code currentJti} to {@code nextJti} in one primary-key update. Returns 0
+     * if the family is unknown, revoked, or no longer at {@code currentJti}.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update RefreshTokenFamily f set f.currentJti = :nextJti, f.expiresAt = :expiresAt
+            where f.familyId = :familyId and f.currentJti = :currentJti and f.revoked = false
+            """)
+    int rotate(@Param("familyId") UUID familyId, @Param("currentJti") String currentJti,
+               @Param("nextJti") String nextJti, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("update RefreshTokenFamily f set f.revoked = true where f.familyId = :familyId")
+    int revoke(@Param("familyId") UUID familyId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshTokenFamily f where f.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
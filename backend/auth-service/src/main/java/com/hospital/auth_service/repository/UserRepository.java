@@ -3,8 +3,14 @@ package com.hospital.auth_service.repository;
 import com.hospital.auth_service.entity.User;
 import com.hospital.common.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +19,24 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail (String email);
     long countByRole(UserRole role);
+
+    /**
+     * Inserts a user in one round trip, relying on the unique email constraint instead of a prior
+     * existence check. Returns the id, or empty if the email is already taken.
+     */
+    @Query(value = """
+            insert into users (id, email, password, role, name, active, created_at, updated_at)
+            values (:id, :email, :password, :role, :name, true, :now, :now)
+            on conflict (email) do nothing
+            returning id
+            """, nativeQuery = true)
+    Optional<UUID> insertIfAbsent(@Param("id") UUID id, @Param("email") String email, @Param("password") String password,
+                                  @Param("role") String role, @Param("name") String name, @Param("now") LocalDateTime now);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Modifying
+    @Query("update User u set u.password = :password, u.updatedAt = :updatedAt where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,56 @@
+package com.hospital.auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
+import com.hospital.auth_service.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Short-lived view of whether a user account is still active, used by stateless JWT authentication
+ * so a disabled account is locked out within {@code jwt.stateless.active-check-ttl} instead of at token expiry.
+ * A zero TTL turns the check off.
+ */
+@Component
+public class ActiveUserCache {
+
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Cache<String, Boolean> cache;
+
+    public ActiveUserCache(UserRepository userRepository,
+                           @Value("${jwt.stateless.active-check-ttl:0s}") Duration ttl,
+                           @Value("${jwt.stateless.active-check-max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl.isZero() ? Duration.ofNanos(1) : ttl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return !ttl.isZero();
+    }
+
+    public boolean isActive(String email) {
+        return cache.get(email, key -> userRepository.findByEmail(key)
+                .map(User::getActive)
+                .map(Boolean.TRUE::equals)
+                .orElse(false));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.email());
+    }
+}
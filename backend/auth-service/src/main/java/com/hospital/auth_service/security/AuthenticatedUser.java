@@ -0,0 +1,61 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.entity.User;
+import com.hospital.common.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal produced by {@link CustomUserDetailsService}. Carries the user's id and role so callers of
+ * {@code AuthenticationManager.authenticate} can build a response without querying the user again.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final UUID id;
+    private final String email;
+    private String password;
+    private final UserRole role;
+    private final boolean active;
+
+    public static AuthenticatedUser from(User user) {
+        return AuthenticatedUser.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .active(Boolean.TRUE.equals(user.getActive()))
+                .build();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
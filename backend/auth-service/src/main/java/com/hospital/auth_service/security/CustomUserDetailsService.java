@@ -1,31 +1,75 @@
 package com.hospital.auth_service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
 import com.hospital.auth_service.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> userCache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${auth.user-cache.ttl:5m}") Duration ttl,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, userCache, "userDetails"));
+    }
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email).orElseThrow(()-> new UsernameNotFoundException("User not found with email:" + email));
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
+        AuthenticatedUser cached = userCache.get(email, this::loadFromDatabase);
+        // Authentication erases credentials on the returned principal, so never hand out the cached instance
+        return cached.toBuilder().build();
+    }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
-                .disabled(!user.getActive())
-                .build();
+    /**
+     * Stores a rehashed password after a successful login whose stored hash no longer meets the encoder policy.
+     */
+    @Override
+    @Transactional
+    public AuthenticatedUser updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword, LocalDateTime.now());
+        evict(user.getUsername());
+        return ((AuthenticatedUser) user).toBuilder().password(newPassword).build();
+    }
+
+    public void evict(String email) {
+        userCache.invalidate(email);
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.email());
+    }
 
+    private AuthenticatedUser loadFromDatabase(String email) {
+        User user = userRepository.findByEmail(email).orElseThrow(()-> new UsernameNotFoundException("User not found with email:" + email));
+
+        return AuthenticatedUser.from(user);
+    }
 
 }
@@ -29,4 +29,11 @@ public class GatewayAccessFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health probes come from the platform and key fetches from verifiers, not through the gateway
+        String uri = request.getRequestURI();
+        return uri.startsWith("/actuator/health") || uri.equals("/.well-known/jwks.json");
+    }
 }
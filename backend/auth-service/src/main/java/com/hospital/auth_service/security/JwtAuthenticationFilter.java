@@ -1,13 +1,16 @@
 package com.hospital.auth_service.security;
 
 import com.hospital.auth_service.config.JwtConfig;
-import com.hospital.auth_service.config.SecurityConfig;
+import com.hospital.auth_service.config.ValidatedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,12 +19,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // Anyone can send bad tokens; a stack trace for each would make logging the bottleneck
+    private static final RateLimitedLogger FAILURES = new RateLimitedLogger(
+            LoggerFactory.getLogger(JwtAuthenticationFilter.class), 10, Duration.ofSeconds(10));
+
     private final JwtConfig jwtConfig;
     private final UserDetailsService userDetailsService;
+    private final ActiveUserCache activeUserCache;
+    private final TokenDenylist tokenDenylist;
+
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException{
@@ -34,24 +48,51 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try{
             final String jwt = authHeader.substring(7);
-            final String email = jwtConfig.extractEmail(jwt);
+            final ValidatedToken token = jwtConfig.validate(jwt);
+
+            if(tokenDenylist.isRevoked(token.getTokenId())){
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            if(email != null && SecurityContextHolder.getContext().getAuthentication() == null){
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            if(token.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null){
+                UsernamePasswordAuthenticationToken authToken = stateless
+                        ? authenticateFromClaims(token)
+                        : authenticateFromUserDetails(token);
 
-                if(jwtConfig.validateToken(jwt, email)){
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
-                    );
+                if(authToken != null){
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
         }catch (Exception e){
-            logger.error("Cannot set user authentication: {}", e);
+            FAILURES.warn("Cannot set user authentication: {}: {}", e.getClass().getSimpleName(), e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(ValidatedToken token){
+        // Refresh tokens carry no role and must not be accepted as access tokens
+        if(token.getRole() == null){
+            return null;
+        }
+        if(activeUserCache.isEnabled() && !activeUserCache.isActive(token.getSubject())){
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                token.getSubject(), null, List.of(new SimpleGrantedAuthority("ROLE_" + token.getRole()))
+        );
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(ValidatedToken token){
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.getSubject());
+        if(!userDetails.isEnabled()){
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities()
+        );
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.hospital.auth_service.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs {@code encode} and {@code matches} of the delegate on the {@link PasswordHashingExecutor}
+ * so request threads only wait for, and never perform, the hashing work.
+ */
+@RequiredArgsConstructor
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes many passwords in parallel on the hashing pool, preserving input order.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return executor.executeAll(rawPasswords.stream()
+                .map(raw -> (Callable<String>) () -> delegate.encode(raw))
+                .toList());
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,68 @@
+package com.hospital.auth_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the password encoder policy. Hashes are stored as {@code {id}hash}; hashes written before the
+ * prefix existed are plain bcrypt and still match. Any hash that is legacy, uses another algorithm or a
+ * lower bcrypt cost than the current policy reports {@code upgradeEncoding() == true}, which makes
+ * {@code DaoAuthenticationProvider} rehash it after a successful login.
+ */
+@Slf4j
+public final class PasswordEncoderFactory {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private static final String CALIBRATION_PASSWORD = "calibration-Password-1";
+
+    private PasswordEncoderFactory() {
+    }
+
+    public static PasswordEncoder create(String encodingId, int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalArgumentException("Unsupported password encoding: " + encodingId);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * Picks the highest bcrypt cost in {@code [minStrength, maxStrength]} whose hash time on this host stays
+     * within {@code latencyBudget}. Each extra cost step doubles the work, so one measurement at the minimum
+     * is enough to extrapolate.
+     */
+    public static int calibrateBcryptStrength(Duration latencyBudget, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder baseline = new BCryptPasswordEncoder(minStrength);
+        String hash = baseline.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            baseline.matches(CALIBRATION_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        long estimated = best;
+        while (strength < maxStrength && estimated * 2 <= latencyBudget.toNanos()) {
+            estimated *= 2;
+            strength++;
+        }
+        log.info("Calibrated bcrypt strength {} (~{} ms per hash, budget {} ms)",
+                strength, Duration.ofNanos(estimated).toMillis(), latencyBudget.toMillis());
+        return strength;
+    }
+}
@@ -0,0 +1,64 @@
+package com.hospital.auth_service.security;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Logs a sample of at most {@code permits} warnings per {@code interval} and only counts the rest, for
+ * events an attacker can trigger at will, such as bad tokens. A suppressed warning costs a clock read
+ * and a counter increment; no message is formatted. The next warning that is logged reports how many
+ * were dropped in between.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int permits;
+    private final long intervalNanos;
+    private final LongSupplier clock;
+    private final AtomicLong windowStart;
+    private final AtomicInteger used = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, int permits, Duration interval) {
+        this(logger, permits, interval, System::nanoTime);
+    }
+
+    RateLimitedLogger(Logger logger, int permits, Duration interval, LongSupplier clock) {
+        this.logger = logger;
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+        this.clock = clock;
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (!logger.isWarnEnabled() || !tryAcquire()) {
+            return;
+        }
+        long dropped = suppressed.sumThenReset();
+        if (dropped > 0) {
+            logger.warn(format + " ({} similar warnings suppressed)", arg1, arg2, dropped);
+        } else {
+            logger.warn(format, arg1, arg2);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        // Checking first keeps the counter from climbing for the rest of a flooded window
+        if (used.get() < permits && used.incrementAndGet() <= permits) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hospital.auth_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hospital.auth_service.repository.RefreshTokenFamilyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * One-time-use refresh tokens grouped into families, one family per login.
+ * <p>
+ * Exchanging a refresh token is a single conditional primary-key update that moves the family to the
+ * next token id, so two instances can never both accept the same token. Presenting a token that is no
+ * longer current means it was copied, and the whole family is revoked. Revoked families are also kept
+ * in memory so a replay storm after detection never reaches the database.
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private final RefreshTokenFamilyRepository repository;
+    private final Duration ttl;
+    private final Cache<UUID, Boolean> revokedFamilies;
+
+    public RefreshTokenStore(RefreshTokenFamilyRepository repository,
+                             @Value("${jwt.refresh-expiration}") long refreshExpirationMillis,
+                             @Value("${auth.refresh.revoked-cache-max-size:100000}") long revokedCacheMaxSize) {
+        this.repository = repository;
+        this.ttl = Duration.ofMillis(refreshExpirationMillis);
+        this.revokedFamilies = Caffeine.newBuilder()
+                .maximumSize(revokedCacheMaxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * The id of a refresh token to issue and the family it belongs to.
+     */
+    public record Issued(UUID familyId, String tokenId) {
+    }
+
+    /**
+     * Starts a new family for a fresh login.
+     */
+    public Issued start(String email) {
+        Issued issued = new Issued(UUID.randomUUID(), UUID.randomUUID().toString());
+        repository.insert(issued.familyId(), email, issued.tokenId(), Instant.now().plus(ttl));
+        return issued;
+    }
+
+    /**
+     * Exchanges {@code tokenId} for the next token of its family. Returns empty, and revokes the
+     * family, if {@code tokenId} is not the family's current token.
+     */
+    public Optional<Issued> rotate(UUID familyId, String tokenId) {
+        if (revokedFamilies.getIfPresent(familyId) != null) {
+            return Optional.empty();
+        }
+        Issued next = new Issued(familyId, UUID.randomUUID().toString());
+        if (repository.rotate(familyId, tokenId, next.tokenId(), Instant.now().plus(ttl)) == 1) {
+            return Optional.of(next);
+        }
+        log.warn("Refresh token {} of family {} is not current, revoking the family", tokenId, familyId);
+        revoke(familyId);
+        return Optional.empty();
+    }
+
+    public void revoke(UUID familyId) {
+        repository.revoke(familyId);
+        revokedFamilies.put(familyId, Boolean.TRUE);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh.prune-interval:1h}")
+    public void prune() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh token families", deleted);
+        }
+    }
+}
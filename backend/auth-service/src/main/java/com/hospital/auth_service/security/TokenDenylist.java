@@ -0,0 +1,134 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.entity.RevokedToken;
+import com.hospital.auth_service.repository.RevokedTokenRepository;
+import com.hospital.common.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Token ids revoked before they expire, checked on every authenticated request.
+ * <p>
+ * A Bloom filter sits in front of the map so the common case, a token that was never revoked, is
+ * answered without allocating or touching the map. Entries are ordered by expiry and dropped once the
+ * token could no longer validate anyway. Revocations are written to Postgres, reloaded at startup and
+ * picked up from other instances every {@code auth.revocation.sync-interval}.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    // Revocations committed by another instance shortly before our last sync
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository repository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Revocation> byExpiry =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(Revocation::expiresAt));
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenDenylist(RevokedTokenRepository repository,
+                         @Value("${auth.revocation.expected-entries:100000}") int expectedEntries,
+                         @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void load() {
+        Instant now = Instant.now();
+        repository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastSync = now;
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revokes {@code jti} until {@code expiresAt}. Already expired tokens are ignored.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (jti == null || !expiresAt.isAfter(now) || revoked.containsKey(jti)) {
+            return;
+        }
+        RevokedToken token = RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(now)
+                .build();
+        repository.save(token);
+        remember(token);
+    }
+
+    /**
+     * Unexpired revocations committed by any instance after {@code since}, read from Postgres so the
+     * answer does not depend on which instance was asked or when it last synced.
+     */
+    public List<RevokedToken> revokedSince(Instant since) {
+        return repository.findByRevokedAtAfterAndExpiresAtAfter(since, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval:30s}")
+    public void sync() {
+        Instant now = Instant.now();
+        repository.findByRevokedAtAfterAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now).forEach(this::remember);
+        lastSync = now;
+        prune(now);
+        repository.deleteExpired(now);
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    void prune(Instant now) {
+        synchronized (writeLock) {
+            boolean removed = false;
+            Revocation head;
+            while ((head = byExpiry.peek()) != null && !head.expiresAt().isAfter(now)) {
+                byExpiry.poll();
+                revoked.remove(head.jti(), head.expiresAt());
+                removed = true;
+            }
+            if (removed) {
+                bloomFilter = BloomFilter.of(revoked.keySet(), expectedEntries, falsePositiveRate);
+            }
+        }
+    }
+
+    private void remember(RevokedToken token) {
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(token.getJti(), token.getExpiresAt()) == null) {
+                byExpiry.add(new Revocation(token.getJti(), token.getExpiresAt()));
+                bloomFilter.put(token.getJti());
+            }
+        }
+    }
+
+    private record Revocation(String jti, Instant expiresAt) {
+    }
+}
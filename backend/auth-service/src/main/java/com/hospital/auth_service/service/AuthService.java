@@ -2,14 +2,29 @@ package com.hospital.auth_service.service;
 
 
 import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
 import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
 import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.AuthenticatedUser;
 
+import com.hospital.auth_service.security.CustomUserDetailsService;
+import com.hospital.auth_service.security.OffloadingPasswordEncoder;
+import com.hospital.auth_service.security.RefreshTokenStore;
+import com.hospital.auth_service.security.TokenDenylist;
 import com.hospital.common.dto.AuthRequest;
 import com.hospital.common.dto.AuthResponse;
+import com.hospital.common.dto.BatchRegistrationRequest;
+import com.hospital.common.dto.BatchRegistrationResult;
+import com.hospital.common.enums.BatchRegistrationStatus;
 import com.hospital.common.enums.UserRole;
+import io.jsonwebtoken.JwtException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,6 +35,15 @@ import org.springframework.stereotype.Service;
 
 import com.hospital.auth_service.exception.UserAlreadyExistsException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -27,25 +51,122 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private  final JwtConfig jwtConfig;
     private final AuthenticationManager authenticationManager;
+    private final UserBatchWriter userBatchWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenDenylist tokenDenylist;
+    private final RefreshTokenStore refreshTokenStore;
+    private final CustomUserDetailsService userDetailsService;
+
+    @Value("${auth.register.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${auth.register.batch.chunk-size:500}")
+    private int batchChunkSize;
 
     @Transactional
     public AuthResponse register(AuthRequest request, UserRole role){
-        if(userRepository.existsByEmail(request.getEmail())){
-            throw new UserAlreadyExistsException("Email already exists");
-        }
+        UUID userId = userRepository.insertIfAbsent(UUID.randomUUID(), request.getEmail(),
+                        passwordEncoder.encode(request.getPassword()), role.name(), null, LocalDateTime.now())
+                .orElseThrow(() -> new UserAlreadyExistsException("Email already exists"));
+        eventPublisher.publishEvent(new UserChangedEvent(userId, request.getEmail()));
 
-        User user = User.builder()
+        return AuthResponse.builder()
+                .userId(userId)
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
                 .role(role)
-                .active(true)
                 .build();
-        user = userRepository.save(user);
+    }
 
-        return AuthResponse.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .role(user.getRole())
+    /**
+     * Registers many users at once: one set-based uniqueness query per chunk, parallel password hashing
+     * and chunked JDBC-batched inserts. Returns one result per request row, in request order.
+     */
+    public List<BatchRegistrationResult> registerBatch(List<BatchRegistrationRequest> requests){
+        if(requests.size() > maxBatchSize){
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxBatchSize + " users");
+        }
+
+        BatchRegistrationResult[] results = new BatchRegistrationResult[requests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for(int i = 0; i < requests.size(); i++){
+            BatchRegistrationRequest request = requests.get(i);
+            if(request == null || isBlank(request.getEmail()) || isBlank(request.getPassword())){
+                results[i] = batchResult(request == null ? null : request.getEmail(), null,
+                        BatchRegistrationStatus.INVALID, "Email and password are required");
+            }else if(candidates.putIfAbsent(request.getEmail(), i) != null){
+                results[i] = batchResult(request.getEmail(), null, BatchRegistrationStatus.DUPLICATE, "Duplicate email in batch");
+            }
+        }
+
+        List<String> emails = new ArrayList<>(candidates.keySet());
+        for(int from = 0; from < emails.size(); from += batchChunkSize){
+            List<String> chunk = emails.subList(from, Math.min(from + batchChunkSize, emails.size()));
+            for(String existing : userRepository.findExistingEmails(chunk)){
+                int index = candidates.remove(existing);
+                results[index] = batchResult(existing, null, BatchRegistrationStatus.DUPLICATE, "Email already exists");
+            }
+        }
+
+        List<Integer> indexes = new ArrayList<>(candidates.values());
+        List<String> hashes = encodeAll(indexes.stream().map(i -> requests.get(i).getPassword()).toList());
+
+        for(int from = 0; from < indexes.size(); from += batchChunkSize){
+            int to = Math.min(from + batchChunkSize, indexes.size());
+            List<User> users = new ArrayList<>(to - from);
+            for(int j = from; j < to; j++){
+                BatchRegistrationRequest request = requests.get(indexes.get(j));
+                users.add(User.builder()
+                        .email(request.getEmail())
+                        .password(hashes.get(j))
+                        .role(request.getRole() == null ? UserRole.PATIENT : request.getRole())
+                        .name(request.getName())
+                        .active(true)
+                        .build());
+            }
+            insertBatchChunk(users, indexes.subList(from, to), results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void insertBatchChunk(List<User> users, List<Integer> indexes, BatchRegistrationResult[] results){
+        try{
+            List<User> saved = userBatchWriter.insertChunk(users);
+            for(int j = 0; j < saved.size(); j++){
+                results[indexes.get(j)] = batchResult(saved.get(j).getEmail(), saved.get(j).getId(), BatchRegistrationStatus.CREATED, null);
+            }
+        }catch (DataIntegrityViolationException e){
+            // A concurrent registration took one of the emails; retry row by row to find it
+            for(int j = 0; j < users.size(); j++){
+                User user = users.get(j);
+                // The failed insert assigned an id; with it, save() would merge instead of insert
+                user.setId(null);
+                try{
+                    User saved = userBatchWriter.insertChunk(List.of(user)).get(0);
+                    results[indexes.get(j)] = batchResult(saved.getEmail(), saved.getId(), BatchRegistrationStatus.CREATED, null);
+                }catch (DataIntegrityViolationException duplicate){
+                    results[indexes.get(j)] = batchResult(user.getEmail(), null, BatchRegistrationStatus.DUPLICATE, "Email already exists");
+                }
+            }
+        }
+    }
+
+    private List<String> encodeAll(List<String> rawPasswords){
+        if(passwordEncoder instanceof OffloadingPasswordEncoder offloadingPasswordEncoder){
+            return offloadingPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    private static boolean isBlank(String value){
+        return value == null || value.isBlank();
+    }
+
+    private static BatchRegistrationResult batchResult(String email, UUID userId, BatchRegistrationStatus status, String message){
+        return BatchRegistrationResult.builder()
+                .email(email)
+                .userId(userId)
+                .status(status)
+                .message(message)
                 .build();
     }
 
@@ -54,11 +175,11 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(()-> new RuntimeException("User not found"));
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
-        String token = jwtConfig.generateToken(user.getEmail(), user.getRole().name());
-        String refreshToken = jwtConfig.generateRefreshToken(user.getEmail());
+        String token = jwtConfig.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        RefreshTokenStore.Issued family = refreshTokenStore.start(user.getEmail());
+        String refreshToken = jwtConfig.generateRefreshToken(user.getEmail(), family.familyId(), family.tokenId());
 
         return AuthResponse.builder()
                 .userId(user.getId())
@@ -75,10 +196,9 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(()->new RuntimeException("User not found"));
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
-        String token = jwtConfig.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtConfig.generateToken(user.getId(), user.getEmail(), user.getRole().name());
         return AuthResponse.builder()
                 .userId(user.getId())
                 .email(user.getEmail())
@@ -94,8 +214,7 @@ public class AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(()->new RuntimeException("User not found"));
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
         String sessionId = SecurityContextHolder.getContext().getAuthentication().getName();
 
@@ -108,16 +227,28 @@ public class AuthService {
     }
 
     public AuthResponse refreshToken(String refreshToken){
-        String email = jwtConfig.extractEmail(refreshToken);
-
-        if(!jwtConfig.validateToken(refreshToken, email)){
+        ValidatedToken validated;
+        try {
+            validated = jwtConfig.validate(refreshToken);
+        } catch (JwtException e) {
             throw new RuntimeException("Invalid refresh token");
         }
+        // Tokens issued before families existed, and access tokens, carry no family and cannot be exchanged
+        if (validated.getFamilyId() == null || tokenDenylist.isRevoked(validated.getTokenId())) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        UUID familyId = UUID.fromString(validated.getFamilyId());
 
-        User user = userRepository.findByEmail(email).orElseThrow(()->new RuntimeException("User not found"));
+        AuthenticatedUser user = userDetailsService.loadUserByUsername(validated.getSubject());
+        if (!user.isEnabled()) {
+            refreshTokenStore.revoke(familyId);
+            throw new RuntimeException("Invalid refresh token");
+        }
+        RefreshTokenStore.Issued next = refreshTokenStore.rotate(familyId, validated.getTokenId())
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
 
-        String newToken = jwtConfig.generateToken(user.getEmail(), user.getRole().name());
-        String newRefreshToken = jwtConfig.generateRefreshToken(user.getEmail());
+        String newToken = jwtConfig.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        String newRefreshToken = jwtConfig.generateRefreshToken(user.getEmail(), familyId, next.tokenId());
 
         return AuthResponse.builder()
                 .userId(user.getId())
@@ -127,4 +258,28 @@ public class AuthService {
                 .refreshToken(newRefreshToken)
                 .build();
     }
+
+    /**
+     * Revokes the given tokens until they expire. Tokens that no longer validate are already unusable
+     * and are skipped.
+     */
+    public void logout(String accessToken, String refreshToken){
+        revoke(accessToken);
+        revoke(refreshToken);
+    }
+
+    private void revoke(String token){
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            ValidatedToken validated = jwtConfig.validate(token);
+            tokenDenylist.revoke(validated.getTokenId(), validated.getExpiresAt());
+            if (validated.getFamilyId() != null) {
+                refreshTokenStore.revoke(UUID.fromString(validated.getFamilyId()));
+            }
+        } catch (JwtException e) {
+            log.debug("Skipping revocation of invalid token: {}", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.hospital.auth_service.service;
+
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts users in chunks, each in its own transaction, so Hibernate can send them as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}) and a conflict only rolls back its own chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserBatchWriter {
+
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<User> insertChunk(List<User> users) {
+        List<User> saved = userRepository.saveAll(users);
+        // Through the repository so a conflict surfaces as DataIntegrityViolationException
+        userRepository.flush();
+        entityManager.clear();
+        return saved;
+    }
+}
@@ -0,0 +1,227 @@
+package com.hospital.auth_service.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP sessions held in this instance's memory, for single-node deployments where a database round
+ * trip per request is the largest part of a session-authenticated request.
+ * <p>
+ * Sessions are spread over {@code auth.session.shards} maps so that the expiry sweep walks one shard
+ * at a time instead of the whole store. Each request works on a copy and only what it changed is
+ * applied back on save. With a {@link SessionWriteBehind} those changes are also queued for Postgres,
+ * and sessions missing from memory, e.g. after a restart, are loaded from there.
+ */
+@Slf4j
+public class InMemorySessionRepository implements SessionRepository<InMemorySessionRepository.TrackedSession> {
+
+    private final ConcurrentHashMap<String, StoredSession>[] shards;
+    private final Duration defaultMaxInactiveInterval;
+    private final SessionWriteBehind writeBehind;
+
+    @SuppressWarnings("unchecked")
+    public InMemorySessionRepository(int shards, Duration defaultMaxInactiveInterval, SessionWriteBehind writeBehind) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Session store needs at least one shard");
+        }
+        // Rounded up to a power of two so a shard is picked with a mask
+        this.shards = new ConcurrentHashMap[shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new ConcurrentHashMap<>();
+        }
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.writeBehind = writeBehind;
+    }
+
+    @Override
+    public TrackedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new TrackedSession(session, null);
+    }
+
+    @Override
+    public void save(TrackedSession session) {
+        String id = session.getId();
+        StoredSession stored = session.originalId == null ? null : shard(session.originalId).get(session.originalId);
+        if (stored == null) {
+            // New, or expired or invalidated while the request was running
+            stored = new StoredSession(UUID.randomUUID().toString(), new MapSession(session.delegate), false);
+            shard(id).put(id, stored);
+            if (writeBehind != null) {
+                writeBehind.changed(stored, session.getAttributeNames(), true);
+            }
+        } else if (session.changed || !session.changedAttributes.isEmpty()) {
+            stored.apply(session.delegate, session.changedAttributes);
+            if (!id.equals(session.originalId)) {
+                shard(session.originalId).remove(session.originalId, stored);
+                shard(id).put(id, stored);
+            }
+            if (writeBehind != null) {
+                writeBehind.changed(stored, session.changedAttributes, session.changed);
+            }
+        }
+        session.saved();
+    }
+
+    @Override
+    public TrackedSession findById(String id) {
+        StoredSession stored = shard(id).get(id);
+        if (stored == null && writeBehind != null) {
+            StoredSession loaded = writeBehind.load(id);
+            if (loaded != null) {
+                StoredSession raced = shard(id).putIfAbsent(id, loaded);
+                stored = raced != null ? raced : loaded;
+            }
+        }
+        if (stored == null) {
+            return null;
+        }
+        MapSession copy = stored.copy();
+        if (!id.equals(copy.getId())) {
+            // Lost a race with a request that rotated the id
+            return null;
+        }
+        if (copy.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new TrackedSession(copy, id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        StoredSession removed = shard(id).remove(id);
+        if (removed != null && writeBehind != null) {
+            writeBehind.deleted(removed);
+        }
+    }
+
+    /**
+     * Drops expired sessions from memory. Their rows are deleted by {@link SessionWriteBehind#deleteExpired()}.
+     */
+    @Scheduled(fixedDelayString = "${auth.session.sweep-interval:1m}")
+    public void sweep() {
+        int removed = 0;
+        for (ConcurrentHashMap<String, StoredSession> shard : shards) {
+            for (var entry : shard.entrySet()) {
+                if (entry.getValue().isExpired() && shard.remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.debug("Evicted {} expired sessions", removed);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, StoredSession> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<String, StoredSession> shard(String id) {
+        int hash = id.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * A request's copy of a session, remembering which attributes it changed.
+     */
+    public static final class TrackedSession implements Session {
+
+        private final MapSession delegate;
+        private final Set<String> changedAttributes = new HashSet<>();
+        private String originalId;
+        private boolean changed;
+
+        TrackedSession(MapSession delegate, String originalId) {
+            this.delegate = delegate;
+            this.originalId = originalId;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            changed = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changedAttributes.add(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changedAttributes.add(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+            changed = true;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changed = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+
+        private void saved() {
+            originalId = delegate.getId();
+            changedAttributes.clear();
+            changed = false;
+        }
+    }
+}
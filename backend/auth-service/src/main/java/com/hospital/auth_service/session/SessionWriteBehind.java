@@ -0,0 +1,267 @@
+package com.hospital.auth_service.session;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists {@link InMemorySessionRepository} sessions to the Spring Session JDBC tables in the
+ * background, so they survive a restart without a database write on every request.
+ * <p>
+ * Saves only record which sessions and attribute names changed. Every
+ * {@code auth.session.write-behind.flush-interval} the pending changes are written in one transaction
+ * with batched statements, reading the latest values from memory: a session touched by a hundred
+ * requests in that interval costs one row update, and only attributes that changed are serialized.
+ * Changes made shortly before a crash are lost, which for sessions means logging in again.
+ */
+@Slf4j
+public class SessionWriteBehind {
+
+    private static final String SESSION_COLUMNS =
+            "PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactions;
+    private final int batchSize;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final PrincipalNameIndexResolver<MapSession> principalNameResolver = new PrincipalNameIndexResolver<>();
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer = new DeserializingConverter();
+
+    private final String insertSession;
+    private final String updateSession;
+    private final String deleteSession;
+    private final String deleteExpiredSessions;
+    private final String insertAttribute;
+    private final String deleteAttribute;
+    private final String selectSession;
+
+    public SessionWriteBehind(JdbcTemplate jdbcTemplate, TransactionOperations transactions, String tableName, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = transactions;
+        this.batchSize = batchSize;
+        this.insertSession = "INSERT INTO " + tableName + " (" + SESSION_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+        this.updateSession = "UPDATE " + tableName + " SET SESSION_ID = ?, LAST_ACCESS_TIME = ?, MAX_INACTIVE_INTERVAL = ?, "
+                + "EXPIRY_TIME = ?, PRINCIPAL_NAME = ? WHERE PRIMARY_ID = ?";
+        this.deleteSession = "DELETE FROM " + tableName + " WHERE PRIMARY_ID = ?";
+        this.deleteExpiredSessions = "DELETE FROM " + tableName + " WHERE EXPIRY_TIME < ?";
+        this.insertAttribute = "INSERT INTO " + tableName + "_ATTRIBUTES (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) "
+                + "VALUES (?, ?, ?)";
+        this.deleteAttribute = "DELETE FROM " + tableName + "_ATTRIBUTES WHERE SESSION_PRIMARY_ID = ? AND ATTRIBUTE_NAME = ?";
+        this.selectSession = "SELECT S.PRIMARY_ID, S.SESSION_ID, S.CREATION_TIME, S.LAST_ACCESS_TIME, S.MAX_INACTIVE_INTERVAL, "
+                + "SA.ATTRIBUTE_NAME, SA.ATTRIBUTE_BYTES FROM " + tableName + " S LEFT JOIN " + tableName + "_ATTRIBUTES SA "
+                + "ON S.PRIMARY_ID = SA.SESSION_PRIMARY_ID WHERE S.SESSION_ID = ?";
+    }
+
+    void changed(StoredSession session, Set<String> attributeNames, boolean sessionChanged) {
+        pending.compute(session.primaryId(), (primaryId, changes) -> {
+            Pending merged = changes != null ? changes : new Pending(session);
+            merged.add(new Changes(new HashSet<>(attributeNames), sessionChanged, false));
+            return merged;
+        });
+    }
+
+    void deleted(StoredSession session) {
+        pending.compute(session.primaryId(), (primaryId, changes) -> {
+            Pending merged = changes != null ? changes : new Pending(session);
+            merged.add(new Changes(Set.of(), false, true));
+            return merged;
+        });
+    }
+
+    /**
+     * Reads a session that is not in memory. Rows with changes still waiting to be written are stale,
+     * e.g. a session that was since deleted or whose id was rotated, and are ignored.
+     */
+    StoredSession load(String sessionId) {
+        return jdbcTemplate.query(selectSession, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            String primaryId = rs.getString("PRIMARY_ID").trim();
+            if (pending.containsKey(primaryId)) {
+                return null;
+            }
+            MapSession session = new MapSession(rs.getString("SESSION_ID").trim());
+            session.setCreationTime(Instant.ofEpochMilli(rs.getLong("CREATION_TIME")));
+            session.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("LAST_ACCESS_TIME")));
+            session.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("MAX_INACTIVE_INTERVAL")));
+            do {
+                String name = rs.getString("ATTRIBUTE_NAME");
+                if (name != null) {
+                    session.setAttribute(name, deserializer.convert(rs.getBytes("ATTRIBUTE_BYTES")));
+                }
+            } while (rs.next());
+            return new StoredSession(primaryId, session, true);
+        }, sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.write-behind.flush-interval:1s}")
+    public synchronized void flush() {
+        Map<String, Changes> drained = new HashMap<>();
+        pending.forEach((primaryId, changes) -> {
+            Changes taken = changes.drain();
+            if (taken != null) {
+                drained.put(primaryId, taken);
+            }
+        });
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            write(drained);
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} changed sessions, retrying on the next flush", drained.size(), e);
+            drained.forEach((primaryId, changes) -> pending.get(primaryId).add(changes));
+            return;
+        }
+        // Keep entries that picked up new changes while we were writing
+        drained.keySet().forEach(primaryId -> pending.computeIfPresent(primaryId,
+                (key, changes) -> changes.isEmpty() ? null : changes));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.sweep-interval:1m}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update(deleteExpiredSessions, System.currentTimeMillis());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired session rows", deleted);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    int pendingSessions() {
+        return pending.size();
+    }
+
+    private void write(Map<String, Changes> drained) {
+        List<Object[]> sessionDeletes = new ArrayList<>();
+        List<Object[]> sessionInserts = new ArrayList<>();
+        List<Object[]> sessionUpdates = new ArrayList<>();
+        List<Object[]> attributeDeletes = new ArrayList<>();
+        List<Object[]> attributeInserts = new ArrayList<>();
+        List<StoredSession> inserted = new ArrayList<>();
+
+        drained.forEach((primaryId, changes) -> {
+            StoredSession stored = pending.get(primaryId).session;
+            if (changes.deleted()) {
+                if (stored.isPersisted()) {
+                    sessionDeletes.add(new Object[]{primaryId});
+                }
+                return;
+            }
+            MapSession session = stored.copy();
+            long lastAccess = session.getLastAccessedTime().toEpochMilli();
+            int maxInactive = (int) session.getMaxInactiveInterval().getSeconds();
+            long expiry = lastAccess + session.getMaxInactiveInterval().toMillis();
+            String principal = principalNameResolver.resolveIndexValueFor(session);
+            if (!stored.isPersisted()) {
+                sessionInserts.add(new Object[]{primaryId, session.getId(), session.getCreationTime().toEpochMilli(),
+                        lastAccess, maxInactive, expiry, principal});
+                inserted.add(stored);
+            } else if (changes.sessionChanged()) {
+                sessionUpdates.add(new Object[]{session.getId(), lastAccess, maxInactive, expiry, principal, primaryId});
+            }
+            for (String name : changes.attributeNames()) {
+                Object value = session.getAttribute(name);
+                if (stored.isPersisted()) {
+                    attributeDeletes.add(new Object[]{primaryId, name});
+                }
+                if (value != null) {
+                    byte[] bytes = serialize(name, value);
+                    if (bytes != null) {
+                        attributeInserts.add(new Object[]{primaryId, name, bytes});
+                    }
+                }
+            }
+        });
+
+        transactions.executeWithoutResult(status -> {
+            batch(sessionDeletes, deleteSession);
+            batch(sessionInserts, insertSession);
+            batch(sessionUpdates, updateSession);
+            batch(attributeDeletes, deleteAttribute);
+            batch(attributeInserts, insertAttribute);
+        });
+        inserted.forEach(StoredSession::markPersisted);
+    }
+
+    private void batch(List<Object[]> rows, String sql) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+        }
+    }
+
+    private byte[] serialize(String name, Object value) {
+        try {
+            return serializer.convert(value);
+        } catch (RuntimeException e) {
+            // One bad attribute must not hold back every other session in the batch
+            log.warn("Session attribute {} of type {} is not serializable and was not persisted",
+                    name, value.getClass().getName());
+            return null;
+        }
+    }
+
+    private record Changes(Set<String> attributeNames, boolean sessionChanged, boolean deleted) {
+    }
+
+    /**
+     * Changes to one session not yet written, merged across saves.
+     */
+    private static final class Pending {
+
+        private final StoredSession session;
+        private Set<String> attributeNames = new HashSet<>();
+        private boolean sessionChanged;
+        private boolean deleted;
+
+        Pending(StoredSession session) {
+            this.session = session;
+        }
+
+        synchronized void add(Changes changes) {
+            attributeNames.addAll(changes.attributeNames());
+            sessionChanged |= changes.sessionChanged();
+            deleted |= changes.deleted();
+        }
+
+        synchronized Changes drain() {
+            if (isEmpty()) {
+                return null;
+            }
+            Changes changes = new Changes(attributeNames, sessionChanged, deleted);
+            attributeNames = new HashSet<>();
+            sessionChanged = false;
+            deleted = false;
+            return changes;
+        }
+
+        synchronized boolean isEmpty() {
+            return attributeNames.isEmpty() && !sessionChanged && !deleted;
+        }
+    }
+}
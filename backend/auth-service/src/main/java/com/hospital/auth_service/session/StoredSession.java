@@ -0,0 +1,53 @@
+package com.hospital.auth_service.session;
+
+import org.springframework.session.MapSession;
+
+import java.util.Set;
+
+/**
+ * The copy of a session kept by {@link InMemorySessionRepository}. Requests work on their own copies
+ * and only their changes are applied back, so concurrent requests in one session do not overwrite
+ * each other's attributes.
+ */
+final class StoredSession {
+
+    private final String primaryId;
+    private final MapSession session;
+    private volatile boolean persisted;
+
+    StoredSession(String primaryId, MapSession session, boolean persisted) {
+        this.primaryId = primaryId;
+        this.session = session;
+        this.persisted = persisted;
+    }
+
+    /** Stable id of the session's row, unchanged when the session id is rotated. */
+    String primaryId() {
+        return primaryId;
+    }
+
+    boolean isPersisted() {
+        return persisted;
+    }
+
+    void markPersisted() {
+        persisted = true;
+    }
+
+    synchronized MapSession copy() {
+        return new MapSession(session);
+    }
+
+    synchronized void apply(MapSession changed, Set<String> changedAttributes) {
+        session.setId(changed.getId());
+        session.setLastAccessedTime(changed.getLastAccessedTime());
+        session.setMaxInactiveInterval(changed.getMaxInactiveInterval());
+        for (String name : changedAttributes) {
+            session.setAttribute(name, changed.getAttribute(name));
+        }
+    }
+
+    synchronized boolean isExpired() {
+        return session.isExpired();
+    }
+}
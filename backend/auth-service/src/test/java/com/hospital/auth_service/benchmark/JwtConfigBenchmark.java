@@ -0,0 +1,75 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign/verify throughput of {@link JwtConfig} against the previous implementation, which derived the
+ * HMAC key and built a parser on every call. Run {@link #main} from the IDE or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtConfigBenchmark {
+
+    private JwtConfig jwtConfig;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtConfig = JwtFixtures.jwtConfig();
+        token = jwtConfig.generateToken("doctor@hospital.com", "DOCTOR");
+    }
+
+    @Benchmark
+    public String signPerCallKey() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject("doctor@hospital.com")
+                .claim("role", "DOCTOR")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusMillis(JwtFixtures.EXPIRATION)))
+                .signWith(Keys.hmacShaKeyFor(JwtFixtures.SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtConfig.generateToken("doctor@hospital.com", "DOCTOR");
+    }
+
+    @Benchmark
+    public String verifyPerCallParser() {
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(JwtFixtures.SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String verify() {
+        return jwtConfig.extractEmail(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtConfigBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,25 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.config.JwtConfig;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+final class JwtFixtures {
+
+    static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+    static final long EXPIRATION = 86_400_000L;
+    static final long REFRESH_EXPIRATION = 604_800_000L;
+
+    private JwtFixtures() {
+    }
+
+    static JwtConfig jwtConfig() {
+        JwtConfig jwtConfig = new JwtConfig(new StandardEnvironment());
+        ReflectionTestUtils.setField(jwtConfig, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtConfig, "expiration", EXPIRATION);
+        ReflectionTestUtils.setField(jwtConfig, "refreshExpiration", REFRESH_EXPIRATION);
+        ReflectionTestUtils.setField(jwtConfig, "signingAlgorithm", "HS256");
+        ReflectionTestUtils.invokeMethod(jwtConfig, "initKeys");
+        return jwtConfig;
+    }
+}
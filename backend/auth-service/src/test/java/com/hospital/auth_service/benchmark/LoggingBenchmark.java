@@ -0,0 +1,163 @@
+package com.hospital.auth_service.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.repository.RevokedTokenRepository;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.ActiveUserCache;
+import com.hospital.auth_service.security.JwtAuthenticationFilter;
+import com.hospital.auth_service.security.TokenDenylist;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.access.ExceptionTranslationFilter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Requests per millisecond through a Spring Security filter chain with {@link JwtAuthenticationFilter},
+ * logging to a file. {@code debug} is the previous default, DEBUG for {@code com.hospital} and Spring
+ * Security written synchronously; {@code production} is the prod profile, INFO and WARN through
+ * logback-spring.xml's AsyncAppender. {@code invalidToken} is a flood of bad tokens, which the filter
+ * now logs through a {@code RateLimitedLogger}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"debug", "production"})
+    private String logging;
+
+    private File logFile;
+    private MockMvc mockMvc;
+    private String validToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        logFile = Files.createTempFile("logging-benchmark", ".log").toFile();
+        configureLogging();
+
+        JwtConfig jwtConfig = JwtFixtures.jwtConfig();
+        validToken = jwtConfig.generateToken("doctor@hospital.com", "DOCTOR");
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtConfig,
+                mock(UserDetailsService.class, withSettings().stubOnly()),
+                new ActiveUserCache(mock(UserRepository.class, withSettings().stubOnly()), Duration.ZERO, 1),
+                new TokenDenylist(mock(RevokedTokenRepository.class, withSettings().stubOnly()), 100_000, 0.01));
+        ReflectionTestUtils.setField(jwtFilter, "stateless", true);
+
+        FilterChainProxy securityFilterChain = new FilterChainProxy(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE,
+                new SecurityContextHolderFilter(new RequestAttributeSecurityContextRepository()),
+                jwtFilter,
+                new AnonymousAuthenticationFilter("benchmark", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")),
+                new ExceptionTranslationFilter(new Http403ForbiddenEntryPoint()),
+                new AuthorizationFilter(AuthenticatedAuthorizationManager.authenticated())));
+        mockMvc = MockMvcBuilders.standaloneSetup(new CallerController())
+                .addFilters(securityFilterChain)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        logFile.delete();
+    }
+
+    @Benchmark
+    public int validToken() throws Exception {
+        return mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int invalidToken() throws Exception {
+        return mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt"))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        boolean production = "production".equals(logging);
+        if (production) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.hospital").setLevel(production ? Level.INFO : Level.DEBUG);
+        context.getLogger("org.springframework.security").setLevel(production ? Level.WARN : Level.DEBUG);
+    }
+
+    @RestController
+    static class CallerController {
+        @GetMapping("/api/auth/me")
+        String me() {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication.getName();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
+import com.hospital.auth_service.repository.RefreshTokenFamilyRepository;
+import com.hospital.auth_service.security.RefreshTokenStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Refresh throughput with a million live token families: validate the presented refresh token, rotate
+ * its family and sign the new token pair. The families table is stood in for by a map with the same
+ * compare-and-set semantics as the conditional update, so the numbers exclude the database round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Threads(4)
+public class RefreshRotationBenchmark {
+
+    private static final int LIVE_FAMILIES = 1_000_000;
+    private static final int FAMILIES_PER_THREAD = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        final Map<UUID, String> currentJti = new ConcurrentHashMap<>();
+        JwtConfig jwtConfig;
+        RefreshTokenStore refreshTokenStore;
+
+        @Setup
+        public void setUp() {
+            RefreshTokenFamilyRepository repository = mock(RefreshTokenFamilyRepository.class, withSettings().stubOnly());
+            when(repository.insert(any(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+                currentJti.put(invocation.getArgument(0), invocation.getArgument(2));
+                return 1;
+            });
+            when(repository.rotate(any(), anyString(), anyString(), any())).thenAnswer(invocation ->
+                    currentJti.replace(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+            jwtConfig = JwtFixtures.jwtConfig();
+            refreshTokenStore = new RefreshTokenStore(repository, JwtFixtures.REFRESH_EXPIRATION, 100_000);
+            for (int i = 0; i < LIVE_FAMILIES; i++) {
+                currentJti.put(UUID.randomUUID(), UUID.randomUUID().toString());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String[] refreshTokens;
+        int next;
+
+        @Setup
+        public void setUp(Store store, ThreadParams threadParams) {
+            refreshTokens = new String[FAMILIES_PER_THREAD];
+            for (int i = 0; i < FAMILIES_PER_THREAD; i++) {
+                String email = "user-" + threadParams.getThreadIndex() + "-" + i + "@hospital.com";
+                RefreshTokenStore.Issued issued = store.refreshTokenStore.start(email);
+                refreshTokens[i] = store.jwtConfig.generateRefreshToken(email, issued.familyId(), issued.tokenId());
+            }
+        }
+    }
+
+    @Benchmark
+    public String refresh(Store store, Client client) {
+        int slot = client.next;
+        client.next = (slot + 1) % FAMILIES_PER_THREAD;
+
+        ValidatedToken presented = store.jwtConfig.validate(client.refreshTokens[slot]);
+        UUID familyId = UUID.fromString(presented.getFamilyId());
+        RefreshTokenStore.Issued next = store.refreshTokenStore.rotate(familyId, presented.getTokenId())
+                .orElseThrow(() -> new IllegalStateException("Family " + familyId + " was revoked"));
+
+        String accessToken = store.jwtConfig.generateToken(presented.getSubject(), "PATIENT");
+        client.refreshTokens[slot] = store.jwtConfig.generateRefreshToken(presented.getSubject(), familyId, next.tokenId());
+        return accessToken;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RefreshRotationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
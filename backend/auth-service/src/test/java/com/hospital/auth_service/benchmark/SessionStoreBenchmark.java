@@ -0,0 +1,146 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.session.InMemorySessionRepository;
+import com.hospital.auth_service.session.SessionWriteBehind;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.web.http.HeaderHttpSessionIdResolver;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Latency of a request authenticated by its session, through Spring Session's filter and Spring
+ * Security's session-backed context, with sessions in {@link JdbcIndexedSessionRepository}, in
+ * {@link InMemorySessionRepository}, and in memory with {@link SessionWriteBehind} flushing every second.
+ * The database is in-process H2, so the JDBC numbers leave out the network round trips Postgres adds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionStoreBenchmark {
+
+    private EmbeddedDatabase database;
+    private ScheduledExecutorService flusher;
+    private Request jdbc;
+    private Request memory;
+    private Request memoryWriteBehind;
+
+    @Setup
+    public void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("org/springframework/session/jdbc/schema-h2.sql")
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(database));
+
+        jdbc = new Request(new JdbcIndexedSessionRepository(jdbcTemplate, transactions));
+        memory = new Request(new InMemorySessionRepository(16, Duration.ofMinutes(30), null));
+        SessionWriteBehind writeBehind = new SessionWriteBehind(jdbcTemplate, transactions, "SPRING_SESSION", 500);
+        memoryWriteBehind = new Request(new InMemorySessionRepository(16, Duration.ofMinutes(30), writeBehind));
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(writeBehind::flush, 1, 1, TimeUnit.SECONDS);
+
+        for (Request request : List.of(jdbc, memory, memoryWriteBehind)) {
+            if (!"doctor@hospital.com".equals(request.perform())) {
+                throw new IllegalStateException("Request was not authenticated by its session");
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        flusher.shutdownNow();
+        database.shutdown();
+    }
+
+    @Benchmark
+    public String jdbc() throws Exception {
+        return jdbc.perform();
+    }
+
+    @Benchmark
+    public String memory() throws Exception {
+        return memory.perform();
+    }
+
+    @Benchmark
+    public String memoryWriteBehind() throws Exception {
+        return memoryWriteBehind.perform();
+    }
+
+    private static final class Request {
+
+        private final MockMvc mockMvc;
+        private final String sessionId;
+
+        <S extends Session> Request(SessionRepository<S> repository) {
+            S session = repository.createSession();
+            Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    "doctor@hospital.com", null, List.of(new SimpleGrantedAuthority("ROLE_DOCTOR")));
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(authentication));
+            repository.save(session);
+            sessionId = session.getId();
+
+            SessionRepositoryFilter<S> sessionFilter = new SessionRepositoryFilter<>(repository);
+            sessionFilter.setHttpSessionIdResolver(HeaderHttpSessionIdResolver.xAuthToken());
+            mockMvc = MockMvcBuilders.standaloneSetup(new CallerController())
+                    .addFilters(sessionFilter, new SecurityContextHolderFilter(new HttpSessionSecurityContextRepository()))
+                    .build();
+        }
+
+        String perform() throws Exception {
+            return mockMvc.perform(get("/api/auth/me").header("X-Auth-Token", sessionId))
+                    .andReturn().getResponse().getContentAsString();
+        }
+    }
+
+    @RestController
+    static class CallerController {
+        @GetMapping("/api/auth/me")
+        String me() {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return authentication == null ? "" : authentication.getName();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessionStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.repository.RevokedTokenRepository;
+import com.hospital.auth_service.security.TokenDenylist;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request revocation check of {@code JwtAuthenticationFilter} with a full denylist. Run with
+ * {@code -prof gc} to confirm the not-revoked path allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenDenylistBenchmark {
+
+    private static final int REVOKED = 100_000;
+
+    private TokenDenylist denylist;
+    private String activeTokenId;
+    private String revokedTokenId;
+
+    @Setup
+    public void setUp() {
+        denylist = new TokenDenylist(Mockito.mock(RevokedTokenRepository.class), REVOKED, 0.01);
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS);
+        for (int i = 0; i < REVOKED; i++) {
+            revokedTokenId = UUID.randomUUID().toString();
+            denylist.revoke(revokedTokenId, expiresAt);
+        }
+        activeTokenId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return denylist.isRevoked(activeTokenId);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return denylist.isRevoked(revokedTokenId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenDenylistBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
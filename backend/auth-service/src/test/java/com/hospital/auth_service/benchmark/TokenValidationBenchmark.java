@@ -0,0 +1,53 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token check of {@code JwtAuthenticationFilter}: the former extractEmail + validateToken
+ * sequence (three signature verifications) against a single {@link JwtConfig#validate(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    private JwtConfig jwtConfig;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtConfig = JwtFixtures.jwtConfig();
+        token = jwtConfig.generateToken("doctor@hospital.com", "DOCTOR");
+    }
+
+    @Benchmark
+    public boolean tripleParse() {
+        String email = jwtConfig.extractEmail(token);
+        String tokenEmail = jwtConfig.extractEmail(token);
+        Date expiration = jwtConfig.extractClaim(token, Claims::getExpiration);
+        return email.equals(tokenEmail) && expiration.after(new Date());
+    }
+
+    @Benchmark
+    public ValidatedToken singleParse() {
+        return jwtConfig.validate(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,174 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.grpc.AuthGrpcService;
+import com.hospital.auth_service.grpc.UserLookupCache;
+import com.hospital.auth_service.repository.RevokedTokenRepository;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.ActiveUserCache;
+import com.hospital.auth_service.security.JwtAuthenticationFilter;
+import com.hospital.auth_service.security.TokenDenylist;
+import com.hospital.common.proto.AuthServiceGrpc;
+import com.hospital.common.proto.ValidateTokenRequest;
+import com.hospital.common.proto.ValidateTokenResponse;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Token validations per second for another service asking auth-service whether a token is good:
+ * a REST request through {@link JwtAuthenticationFilter} and the MVC stack, a unary {@code ValidateToken}
+ * call, and {@code ValidateTokens} pipelining a batch over one stream. Both transports run in-process,
+ * so the numbers compare framing, dispatch and serialization, not the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenValidationTransportBenchmark {
+
+    private static final int BATCH = 100;
+
+    private String token;
+    private MockMvc mockMvc;
+    private Server server;
+    private ManagedChannel channel;
+    private AuthServiceGrpc.AuthServiceBlockingStub blockingStub;
+    private AuthServiceGrpc.AuthServiceStub asyncStub;
+    private ValidateTokenRequest[] batch;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtConfig jwtConfig = JwtFixtures.jwtConfig();
+        token = jwtConfig.generateToken("doctor@hospital.com", "DOCTOR");
+        TokenDenylist tokenDenylist = new TokenDenylist(
+                mock(RevokedTokenRepository.class, withSettings().stubOnly()), 100_000, 0.01);
+        ActiveUserCache activeUserCache = new ActiveUserCache(
+                mock(UserRepository.class, withSettings().stubOnly()), Duration.ZERO, 1);
+
+        UserLookupCache userLookupCache = new UserLookupCache(mock(UserRepository.class, withSettings().stubOnly()),
+                1, Duration.ofSeconds(1), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(
+                jwtConfig, mock(UserDetailsService.class, withSettings().stubOnly()), activeUserCache, tokenDenylist);
+        ReflectionTestUtils.setField(jwtFilter, "stateless", true);
+        // Stands in for SecurityContextHolderFilter, which clears the context after each request
+        Filter clearContext = (request, response, chain) -> {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        };
+        mockMvc = MockMvcBuilders.standaloneSetup(new CallerController())
+                .addFilters(clearContext, jwtFilter)
+                .build();
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new AuthGrpcService(jwtConfig, userLookupCache, tokenDenylist, activeUserCache))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        blockingStub = AuthServiceGrpc.newBlockingStub(channel);
+        asyncStub = AuthServiceGrpc.newStub(channel);
+
+        batch = new ValidateTokenRequest[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batch[i] = ValidateTokenRequest.newBuilder().setToken(token).setRequestId(Integer.toString(i)).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public String rest() throws Exception {
+        return mockMvc.perform(get("/api/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public ValidateTokenResponse grpcUnary() {
+        return blockingStub.validateToken(batch[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int grpcStream() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        int[] valid = new int[1];
+        StreamObserver<ValidateTokenRequest> requests = asyncStub.validateTokens(new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateTokenResponse response) {
+                if (response.getValid()) {
+                    valid[0]++;
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        for (ValidateTokenRequest request : batch) {
+            requests.onNext(request);
+        }
+        requests.onCompleted();
+        done.await();
+        return valid[0];
+    }
+
+    @RestController
+    static class CallerController {
+        @GetMapping("/api/auth/me")
+        Map<String, Object> me() {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            return Map.of("valid", authentication != null,
+                    "email", authentication == null ? "" : authentication.getName());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenValidationTransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.hospital.auth_service.benchmark;
+
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.grpc.UserLookupCache;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.common.enums.UserRole;
+import com.hospital.common.proto.UserResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Database queries issued while many callers look up the same few users, as when every appointment
+ * listing resolves who booked it. Each query takes a millisecond and cached entries live for 10ms, so
+ * the cache keeps missing. The {@code queries} counter should stay flat for {@code cached} as threads
+ * are added, while for {@code direct} it grows with them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final int HOT_USERS = 10;
+    private static final ThreadLocal<Queries> QUERIES = new ThreadLocal<>();
+
+    private UUID[] ids;
+    private UserRepository repository;
+    private UserLookupCache cache;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Queries {
+        public long queries;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            queries = 0;
+            QUERIES.set(this);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ids = new UUID[HOT_USERS];
+        for (int i = 0; i < HOT_USERS; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        repository = mock(UserRepository.class, withSettings().stubOnly());
+        when(repository.findById(any())).thenAnswer(invocation -> {
+            QUERIES.get().queries++;
+            Thread.sleep(1);
+            UUID id = invocation.getArgument(0);
+            return Optional.of(User.builder().id(id).email(id + "@hospital.com").role(UserRole.DOCTOR).build());
+        });
+        cache = new UserLookupCache(repository, 10_000, Duration.ofMillis(10),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UserResponse cached_1(Queries queries) {
+        return cache.findById(nextId()).join();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UserResponse cached_8(Queries queries) {
+        return cache.findById(nextId()).join();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public UserResponse cached_32(Queries queries) {
+        return cache.findById(nextId()).join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<User> direct_1(Queries queries) {
+        return repository.findById(nextId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<User> direct_8(Queries queries) {
+        return repository.findById(nextId());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Optional<User> direct_32(Queries queries) {
+        return repository.findById(nextId());
+    }
+
+    private UUID nextId() {
+        return ids[ThreadLocalRandom.current().nextInt(HOT_USERS)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.auth_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTest {
+
+    @Test
+    void poolSize_DefaultsToTwicePerProcessorPlusOne() {
+        assertEquals(9, DataSourceConfig.poolSize(0, 4));
+        assertEquals(20, DataSourceConfig.poolSize(20, 4));
+    }
+
+    @Test
+    void hikariDataSource_IsSizedAsFixedPool() {
+        BeanPostProcessor sizer = DataSourceConfig.hikariPoolSizer(12);
+        HikariDataSource dataSource = new HikariDataSource();
+
+        sizer.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertEquals(12, dataSource.getMaximumPoolSize());
+        assertEquals(12, dataSource.getMinimumIdle());
+    }
+}
@@ -0,0 +1,237 @@
+package com.hospital.auth_service.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtConfigTest {
+
+    private static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+    private static final String ROTATED_SECRET = "hospital-management-rotated-secret-key-for-jwt-tokens-2025";
+
+    private JwtConfig jwtConfig;
+
+    @BeforeEach
+    void setUp() {
+        jwtConfig = jwtConfig("HS256", SECRET);
+    }
+
+    @Test
+    void generateToken_RoundTrips() {
+        String token = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        assertEquals("test@example.com", jwtConfig.extractEmail(token));
+        assertEquals("PATIENT", jwtConfig.extractRole(token));
+        assertTrue(jwtConfig.validateToken(token, "test@example.com"));
+    }
+
+    @Test
+    void validate_ExposesClaimsFromSingleParse() {
+        String token = jwtConfig.generateToken("test@example.com", "DOCTOR");
+
+        ValidatedToken validated = jwtConfig.validate(token);
+
+        assertEquals("test@example.com", validated.getSubject());
+        assertEquals("DOCTOR", validated.getRole());
+        assertTrue(validated.getExpiresAt().isAfter(validated.getIssuedAt()));
+    }
+
+    @Test
+    void validate_ExposesUserIdClaim() {
+        UUID userId = UUID.randomUUID();
+        String token = jwtConfig.generateToken(userId, "test@example.com", "DOCTOR");
+
+        assertEquals(userId.toString(), jwtConfig.validate(token).getUserId());
+        assertNull(jwtConfig.validate(jwtConfig.generateRefreshToken("test@example.com", UUID.randomUUID(), "jti")).getUserId());
+    }
+
+    @Test
+    void validate_RejectsExpiredToken() {
+        ReflectionTestUtils.setField(jwtConfig, "expiration", -1_000L);
+        String token = jwtConfig.generateToken("test@example.com", "DOCTOR");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtConfig.validate(token));
+    }
+
+    @Test
+    void rotateSigningKey_KeepsVerifyingPreviousTokens() {
+        String oldToken = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        jwtConfig.rotateSigningKey(ROTATED_SECRET);
+        String newToken = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        assertEquals("test@example.com", jwtConfig.extractEmail(oldToken));
+        assertEquals("test@example.com", jwtConfig.extractEmail(newToken));
+    }
+
+    @Test
+    void rotateSigningKey_KeepsVerifyingTokensWithoutKeyId() {
+        // Issued before tokens carried a key id
+        String legacyToken = Jwts.builder()
+                .subject("test@example.com")
+                .claim("role", "PATIENT")
+                .expiration(Date.from(Instant.now().plus(7, ChronoUnit.DAYS)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        jwtConfig.rotateSigningKey(ROTATED_SECRET);
+        jwtConfig.rotateSigningKey(SECRET + "-2026");
+
+        assertEquals("test@example.com", jwtConfig.extractEmail(legacyToken));
+    }
+
+    @Test
+    void extractEmail_RejectsTokenFromUnknownKey() {
+        JwtConfig other = jwtConfig("HS256", ROTATED_SECRET);
+
+        String foreignToken = other.generateToken("test@example.com", "PATIENT");
+
+        assertThrows(JwtException.class, () -> jwtConfig.extractEmail(foreignToken));
+    }
+
+    @Test
+    void jwks_IsEmptyForSharedSecret() {
+        assertEquals("{\"keys\":[]}", jwtConfig.jwks());
+    }
+
+    @Test
+    void rs256_SignsWithKeyIdPublishedInJwks() {
+        JwtConfig rsa = jwtConfig("RS256", SECRET);
+
+        String token = rsa.generateToken("test@example.com", "DOCTOR");
+        PublicJwk<?> jwk = (PublicJwk<?>) Jwks.setParser().build().parse(rsa.jwks()).getKeys().iterator().next();
+        Jws<Claims> verified = Jwts.parser().verifyWith((PublicKey) jwk.toKey()).build().parseSignedClaims(token);
+
+        assertEquals("RS256", jwk.getAlgorithm());
+        assertEquals(jwk.getId(), verified.getHeader().getKeyId());
+        assertEquals("DOCTOR", verified.getPayload().get("role"));
+    }
+
+    @Test
+    void eddsa_RoundTrips() {
+        JwtConfig eddsa = jwtConfig("EdDSA", SECRET);
+
+        String token = eddsa.generateToken("test@example.com", "PATIENT");
+
+        assertEquals("PATIENT", eddsa.validate(token).getRole());
+        assertTrue(eddsa.jwks().contains("\"crv\":\"Ed25519\""));
+    }
+
+    @Test
+    void asymmetric_AcceptsTokensSignedWithSharedSecretUntilCutOff() {
+        String hmacToken = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        JwtConfig rsa = jwtConfig("RS256", SECRET, Instant.now().plus(1, ChronoUnit.DAYS).toString());
+
+        assertEquals("test@example.com", rsa.extractEmail(hmacToken));
+        assertFalse(rsa.jwks().contains("\"k\""));
+    }
+
+    @Test
+    void asymmetric_RejectsTokensSignedWithSharedSecretAfterCutOff() {
+        String hmacToken = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        JwtConfig rsa = jwtConfig("RS256", SECRET, Instant.now().minusSeconds(1).toString());
+
+        assertThrows(JwtException.class, () -> rsa.extractEmail(hmacToken));
+    }
+
+    @Test
+    void asymmetric_RejectsTokensSignedWithSharedSecretWithoutCutOff() {
+        String hmacToken = jwtConfig.generateToken("test@example.com", "PATIENT");
+
+        JwtConfig rsa = jwtConfig("RS256", SECRET);
+
+        assertThrows(JwtException.class, () -> rsa.extractEmail(hmacToken));
+    }
+
+    @Test
+    void asymmetric_RotationPublishesBothKeys() {
+        JwtConfig rsa = jwtConfig("RS256", SECRET);
+        String oldToken = rsa.generateToken("test@example.com", "PATIENT");
+
+        rsa.rotateSigningKey(Jwts.SIG.RS256.keyPair().build());
+
+        assertEquals("test@example.com", rsa.extractEmail(oldToken));
+        assertEquals(2, Jwks.setParser().build().parse(rsa.jwks()).getKeys().size());
+    }
+
+    @Test
+    void asymmetric_WithoutKeyPair_FailsStartup() {
+        JwtConfig rsa = new JwtConfig(new StandardEnvironment());
+        configure(rsa, "RS256", SECRET);
+        ReflectionTestUtils.setField(rsa, "generateKeyPair", false);
+
+        assertThrows(IllegalStateException.class, rsa::initKeys);
+    }
+
+    @Test
+    void asymmetric_LoadsPemKeyPair(@TempDir Path dir) throws Exception {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        Path privateKey = Files.writeString(dir.resolve("private.pem"), pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Path publicKey = Files.writeString(dir.resolve("public.pem"), pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        JwtConfig rsa = new JwtConfig(new StandardEnvironment());
+        configure(rsa, "RS256", SECRET);
+        ReflectionTestUtils.setField(rsa, "privateKeyLocation", privateKey.toUri().toString());
+        ReflectionTestUtils.setField(rsa, "publicKeyLocation", publicKey.toUri().toString());
+        ReflectionTestUtils.setField(rsa, "generateKeyPair", false);
+        rsa.initKeys();
+
+        String token = rsa.generateToken("test@example.com", "DOCTOR");
+
+        assertEquals("test@example.com", Jwts.parser().verifyWith(keyPair.getPublic()).build()
+                .parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    private static JwtConfig jwtConfig(String algorithm, String secret) {
+        return jwtConfig(algorithm, secret, "");
+    }
+
+    private static JwtConfig jwtConfig(String algorithm, String secret, String legacyHmacUntil) {
+        JwtConfig config = new JwtConfig(new StandardEnvironment());
+        configure(config, algorithm, secret);
+        ReflectionTestUtils.setField(config, "legacyHmacUntil", legacyHmacUntil);
+        config.initKeys();
+        return config;
+    }
+
+    private static void configure(JwtConfig config, String algorithm, String secret) {
+        ReflectionTestUtils.setField(config, "secret", secret);
+        ReflectionTestUtils.setField(config, "expiration", 60_000L);
+        ReflectionTestUtils.setField(config, "refreshExpiration", 120_000L);
+        ReflectionTestUtils.setField(config, "signingAlgorithm", algorithm);
+        ReflectionTestUtils.setField(config, "privateKeyLocation", "");
+        ReflectionTestUtils.setField(config, "publicKeyLocation", "");
+        ReflectionTestUtils.setField(config, "generateKeyPair", true);
+        ReflectionTestUtils.setField(config, "legacyHmacUntil", "");
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
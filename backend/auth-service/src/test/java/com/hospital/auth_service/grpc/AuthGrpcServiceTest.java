@@ -0,0 +1,216 @@
+package com.hospital.auth_service.grpc;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.ActiveUserCache;
+import com.hospital.auth_service.security.TokenDenylist;
+import com.hospital.common.enums.UserRole;
+import com.hospital.common.proto.AuthServiceGrpc;
+import com.hospital.common.proto.GetUserByEmailRequest;
+import com.hospital.common.proto.GetUserRequest;
+import com.hospital.common.proto.GetUsersByIdsRequest;
+import com.hospital.common.proto.GetUsersResponse;
+import com.hospital.common.proto.UserResponse;
+import com.hospital.common.proto.ValidateTokenRequest;
+import com.hospital.common.proto.ValidateTokenResponse;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthGrpcServiceTest {
+
+    @Mock
+    private JwtConfig jwtConfig;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private ActiveUserCache activeUserCache;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UserLookupCache userLookupCache = new UserLookupCache(userRepository, 100, Duration.ofSeconds(30),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        AuthGrpcService service = new AuthGrpcService(jwtConfig, userLookupCache, tokenDenylist, activeUserCache);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 2);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(service)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void validateToken_ReturnsClaimsOfValidAccessToken() {
+        UUID userId = UUID.randomUUID();
+        when(jwtConfig.validate("good")).thenReturn(token(userId.toString(), "DOCTOR"));
+
+        ValidateTokenResponse response = AuthServiceGrpc.newBlockingStub(channel)
+                .validateToken(ValidateTokenRequest.newBuilder().setToken("good").build());
+
+        assertTrue(response.getValid());
+        assertEquals(userId.toString(), response.getUserId());
+        assertEquals("doctor@hospital.com", response.getEmail());
+        assertEquals("DOCTOR", response.getRole());
+    }
+
+    @Test
+    void validateToken_RejectsRevokedAndRefreshTokens() {
+        when(jwtConfig.validate("revoked")).thenReturn(token(null, "DOCTOR"));
+        when(jwtConfig.validate("refresh")).thenReturn(token(null, null));
+        when(tokenDenylist.isRevoked("jti")).thenReturn(true);
+        AuthServiceGrpc.AuthServiceBlockingStub stub = AuthServiceGrpc.newBlockingStub(channel);
+
+        assertFalse(stub.validateToken(ValidateTokenRequest.newBuilder().setToken("revoked").build()).getValid());
+        assertFalse(stub.validateToken(ValidateTokenRequest.newBuilder().setToken("refresh").build()).getValid());
+    }
+
+    @Test
+    void validateTokens_AnswersEachRequestInOrder() throws Exception {
+        when(jwtConfig.validate("good")).thenReturn(token(null, "PATIENT"));
+        when(jwtConfig.validate("bad")).thenThrow(new MalformedJwtException("bad"));
+        List<ValidateTokenResponse> responses = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+
+        StreamObserver<ValidateTokenRequest> requests = AuthServiceGrpc.newStub(channel)
+                .validateTokens(new StreamObserver<>() {
+                    @Override
+                    public void onNext(ValidateTokenResponse value) {
+                        responses.add(value);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+        requests.onNext(ValidateTokenRequest.newBuilder().setToken("good").setRequestId("1").build());
+        requests.onNext(ValidateTokenRequest.newBuilder().setToken("bad").setRequestId("2").build());
+        requests.onNext(ValidateTokenRequest.newBuilder().setToken("good").setRequestId("3").build());
+        requests.onCompleted();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "2", "3"), responses.stream().map(ValidateTokenResponse::getRequestId).toList());
+        assertEquals(List.of(true, false, true), responses.stream().map(ValidateTokenResponse::getValid).toList());
+    }
+
+    @Test
+    void getUserById_ReturnsUser() {
+        User user = user("reception@hospital.com");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        UserResponse response = AuthServiceGrpc.newBlockingStub(channel)
+                .getUserById(GetUserRequest.newBuilder().setUserId(user.getId().toString()).build());
+
+        assertEquals("reception@hospital.com", response.getEmail());
+        assertEquals("RECEPTIONIST", response.getRole());
+        assertEquals("true", response.getActive());
+    }
+
+    @Test
+    void getUsersByIds_FetchesAllWithOneQuery() {
+        User first = user("first@hospital.com");
+        User second = user("second@hospital.com");
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(second, first));
+
+        GetUsersResponse response = AuthServiceGrpc.newBlockingStub(channel).getUsersByIds(GetUsersByIdsRequest.newBuilder()
+                .addUserIds(first.getId().toString())
+                .addUserIds(second.getId().toString())
+                .build());
+
+        assertEquals(List.of("first@hospital.com", "second@hospital.com"),
+                response.getUsersList().stream().map(UserResponse::getEmail).toList());
+        verify(userRepository, times(1)).findAllById(anyCollection());
+    }
+
+    @Test
+    void getUsersByIds_RejectsOversizedBatch() {
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () ->
+                AuthServiceGrpc.newBlockingStub(channel).getUsersByIds(GetUsersByIdsRequest.newBuilder()
+                        .addAllUserIds(List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                                UUID.randomUUID().toString()))
+                        .build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void unknownOrMalformedUser_MapsToStatusCodes() {
+        when(userRepository.findByEmail("ghost@hospital.com")).thenReturn(Optional.empty());
+        AuthServiceGrpc.AuthServiceBlockingStub stub = AuthServiceGrpc.newBlockingStub(channel);
+
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUserByEmail(GetUserByEmailRequest.newBuilder().setEmail("ghost@hospital.com").build()));
+        StatusRuntimeException invalid = assertThrows(StatusRuntimeException.class,
+                () -> stub.getUserById(GetUserRequest.newBuilder().setUserId("not-a-uuid").build()));
+
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getStatus().getCode());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .email(email)
+                .role(UserRole.RECEPTIONIST)
+                .name("Reception")
+                .build();
+    }
+
+    private static ValidatedToken token(String userId, String role) {
+        Instant now = Instant.now();
+        return new ValidatedToken("jti", null, "doctor@hospital.com", userId, role, now, now.plusSeconds(60));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.auth_service.grpc;
+
+import com.hospital.common.grpc.ServiceCredentialClientInterceptor;
+import com.hospital.common.proto.AuthServiceGrpc;
+import com.hospital.common.proto.ValidateTokenRequest;
+import com.hospital.common.proto.ValidateTokenResponse;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrpcServerTest {
+
+    private static final ValidateTokenRequest REQUEST = ValidateTokenRequest.newBuilder().setToken("token").build();
+
+    private GrpcServer server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void callWithoutCredential_IsRejected() {
+        server = server("127.0.0.1", "service-credential");
+        server.start();
+        channel = NettyChannelBuilder.forAddress("127.0.0.1", server.getPort()).usePlaintext().build();
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> AuthServiceGrpc.newBlockingStub(channel).validateToken(REQUEST));
+        assertEquals(Status.Code.UNAUTHENTICATED, e.getStatus().getCode());
+
+        StatusRuntimeException wrong = assertThrows(StatusRuntimeException.class,
+                () -> AuthServiceGrpc.newBlockingStub(channel)
+                        .withInterceptors(new ServiceCredentialClientInterceptor("guessed"))
+                        .validateToken(REQUEST));
+        assertEquals(Status.Code.UNAUTHENTICATED, wrong.getStatus().getCode());
+    }
+
+    @Test
+    void callWithCredential_IsServed() {
+        server = server("127.0.0.1", "service-credential");
+        server.start();
+        channel = NettyChannelBuilder.forAddress("127.0.0.1", server.getPort()).usePlaintext().build();
+
+        ValidateTokenResponse response = AuthServiceGrpc.newBlockingStub(channel)
+                .withInterceptors(new ServiceCredentialClientInterceptor("service-credential"))
+                .validateToken(REQUEST);
+
+        assertTrue(response.getValid());
+    }
+
+    @Test
+    void withoutCredential_OnlyStartsOnLoopback() {
+        GrpcServer exposed = server("", "");
+        assertThrows(IllegalStateException.class, exposed::start);
+        assertFalse(exposed.isRunning());
+
+        server = server("127.0.0.1", "");
+        server.start();
+        assertTrue(server.isRunning());
+    }
+
+    private static GrpcServer server(String address, String credential) {
+        AuthServiceGrpc.AuthServiceImplBase service = new AuthServiceGrpc.AuthServiceImplBase() {
+            @Override
+            public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+                responseObserver.onNext(ValidateTokenResponse.newBuilder().setValid(true).build());
+                responseObserver.onCompleted();
+            }
+        };
+        return new GrpcServer(List.of(service), true, 0, address, credential, Duration.ofSeconds(10), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,153 @@
+package com.hospital.auth_service.grpc;
+
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.common.enums.UserRole;
+import com.hospital.common.proto.UserResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserLookupCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserLookupCache(userRepository, 100, Duration.ofMinutes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void concurrentLookups_ShareOneQuery() throws Exception {
+        User user = user();
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<CompletableFuture<UserResponse>> leader =
+                    CompletableFuture.supplyAsync(() -> cache.findById(user.getId()), executor);
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<UserResponse>> followers = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                followers.add(cache.findById(user.getId()));
+            }
+            release.countDown();
+
+            assertEquals(user.getEmail(), leader.get(5, TimeUnit.SECONDS).get().getEmail());
+            for (CompletableFuture<UserResponse> follower : followers) {
+                assertEquals(user.getEmail(), follower.get(5, TimeUnit.SECONDS).getEmail());
+            }
+            verify(userRepository, times(1)).findById(user.getId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void unknownUser_IsNotCached() {
+        UUID id = UUID.randomUUID();
+        when(userRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertNull(cache.findById(id).join());
+        assertNull(cache.findById(id).join());
+
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void findAllById_QueriesOnlyUncachedIdsOnce() {
+        User cached = user();
+        User missing = user();
+        when(userRepository.findById(cached.getId())).thenReturn(Optional.of(cached));
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(missing));
+        cache.findById(cached.getId()).join();
+
+        UUID unknown = UUID.randomUUID();
+
+        List<UserResponse> users = cache.findAllById(
+                List.of(missing.getId(), cached.getId(), unknown, missing.getId())).join();
+
+        assertEquals(List.of(missing.getId().toString(), cached.getId().toString()),
+                users.stream().map(UserResponse::getId).toList());
+        verify(userRepository, times(1)).findAllById(Set.of(missing.getId(), unknown));
+    }
+
+    @Test
+    void onUserChanged_EvictsByIdAndEmail() {
+        User user = user();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        cache.findById(user.getId()).join();
+        cache.findByEmail(user.getEmail()).join();
+
+        cache.onUserChanged(new UserChangedEvent(user.getId(), user.getEmail()));
+        cache.findById(user.getId()).join();
+        cache.findByEmail(user.getEmail()).join();
+
+        verify(userRepository, times(2)).findById(user.getId());
+        verify(userRepository, times(2)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    void onUserChanged_DuringLookup_DoesNotCacheWhatTheLookupRead() {
+        User user = user();
+        UserChangedEvent changed = new UserChangedEvent(user.getId(), user.getEmail());
+        // The row is read, then updated and the cache invalidated before the read's result is stored
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> {
+            cache.onUserChanged(changed);
+            return Optional.of(user);
+        });
+        when(userRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            cache.onUserChanged(changed);
+            return List.of(user);
+        });
+
+        cache.findById(user.getId()).join();
+        cache.findById(user.getId()).join();
+        cache.findAllById(List.of(user.getId())).join();
+        cache.findAllById(List.of(user.getId())).join();
+
+        verify(userRepository, times(2)).findById(user.getId());
+        verify(userRepository, times(2)).findAllById(anyCollection());
+    }
+
+    private static User user() {
+        UUID id = UUID.randomUUID();
+        return User.builder()
+                .id(id)
+                .email(id + "@hospital.com")
+                .role(UserRole.DOCTOR)
+                .build();
+    }
+}
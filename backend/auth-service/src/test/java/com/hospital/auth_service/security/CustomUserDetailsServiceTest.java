@@ -0,0 +1,105 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.common.enums.UserRole;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(userRepository, 100, Duration.ofMinutes(5),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void loadUserByUsername_CachesRepeatedLookups() {
+        when(userRepository.findByEmail("doctor@example.com")).thenReturn(Optional.of(user()));
+
+        AuthenticatedUser first = userDetailsService.loadUserByUsername("doctor@example.com");
+        AuthenticatedUser second = userDetailsService.loadUserByUsername("doctor@example.com");
+
+        assertEquals("doctor@example.com", second.getUsername());
+        assertEquals(first.getId(), second.getId());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findByEmail("doctor@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_ErasedCredentialsDoNotLeakIntoCache() {
+        when(userRepository.findByEmail("doctor@example.com")).thenReturn(Optional.of(user()));
+
+        userDetailsService.loadUserByUsername("doctor@example.com").eraseCredentials();
+
+        assertEquals("hash", userDetailsService.loadUserByUsername("doctor@example.com").getPassword());
+    }
+
+    @Test
+    void onUserChanged_EvictsCachedEntry() {
+        when(userRepository.findByEmail("doctor@example.com")).thenReturn(Optional.of(user()));
+
+        userDetailsService.loadUserByUsername("doctor@example.com");
+        userDetailsService.onUserChanged(new UserChangedEvent(UUID.randomUUID(), "doctor@example.com"));
+        userDetailsService.loadUserByUsername("doctor@example.com");
+
+        verify(userRepository, times(2)).findByEmail("doctor@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_DoesNotCacheMissingUser() {
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody@example.com"));
+
+        verify(userRepository, times(2)).findByEmail("nobody@example.com");
+    }
+
+    @Test
+    void updatePassword_StoresNewHashAndEvicts() {
+        when(userRepository.findByEmail("doctor@example.com")).thenReturn(Optional.of(user()));
+        AuthenticatedUser loaded = userDetailsService.loadUserByUsername("doctor@example.com");
+
+        AuthenticatedUser updated = userDetailsService.updatePassword(loaded, "{bcrypt}new-hash");
+
+        assertEquals("{bcrypt}new-hash", updated.getPassword());
+        assertEquals(loaded.getId(), updated.getId());
+        verify(userRepository).updatePassword(eq("doctor@example.com"), eq("{bcrypt}new-hash"), any());
+        userDetailsService.loadUserByUsername("doctor@example.com");
+        verify(userRepository, times(2)).findByEmail("doctor@example.com");
+    }
+
+    private static User user() {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .email("doctor@example.com")
+                .password("hash")
+                .role(UserRole.DOCTOR)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtConfig jwtConfig;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private ActiveUserCache activeUserCache;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @InjectMocks
+    private JwtAuthenticationFilter filter;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer jwt-token");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void stateless_AuthenticatesFromClaimsWithoutLoadingUser() throws Exception {
+        when(jwtConfig.validate("jwt-token")).thenReturn(token("DOCTOR"));
+        when(activeUserCache.isEnabled()).thenReturn(false);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("test@example.com", authentication.getName());
+        assertEquals("ROLE_DOCTOR", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void stateless_RejectsInactiveUser() throws Exception {
+        when(jwtConfig.validate("jwt-token")).thenReturn(token("DOCTOR"));
+        when(activeUserCache.isEnabled()).thenReturn(true);
+        when(activeUserCache.isActive("test@example.com")).thenReturn(false);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void stateless_RejectsTokenWithoutRole() throws Exception {
+        when(jwtConfig.validate("jwt-token")).thenReturn(token(null));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void revokedToken_IsNotAuthenticated() throws Exception {
+        when(jwtConfig.validate("jwt-token")).thenReturn(token("DOCTOR"));
+        when(tokenDenylist.isRevoked("token-id")).thenReturn(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static ValidatedToken token(String role) {
+        Instant now = Instant.now();
+        return new ValidatedToken("token-id", null, "test@example.com", null, role, now, now.plusSeconds(60));
+    }
+}
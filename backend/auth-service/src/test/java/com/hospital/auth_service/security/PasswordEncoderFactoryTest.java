@@ -0,0 +1,43 @@
+package com.hospital.auth_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderFactoryTest {
+
+    @Test
+    void create_MatchesLegacyUnprefixedBcryptAndFlagsItForUpgrade() {
+        PasswordEncoder encoder = PasswordEncoderFactory.create(PasswordEncoderFactory.BCRYPT, 4);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(encoder.matches("password", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+
+    @Test
+    void create_FlagsLowerCostHashForUpgrade() {
+        String weakHash = PasswordEncoderFactory.create(PasswordEncoderFactory.BCRYPT, 4).encode("password");
+        PasswordEncoder encoder = PasswordEncoderFactory.create(PasswordEncoderFactory.BCRYPT, 5);
+
+        assertTrue(weakHash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("password", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+    }
+
+    @Test
+    void create_RejectsUnknownEncoding() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordEncoderFactory.create("md5", 10));
+    }
+
+    @Test
+    void calibrateBcryptStrength_StaysWithinBounds() {
+        assertEquals(4, PasswordEncoderFactory.calibrateBcryptStrength(Duration.ZERO, 4, 6));
+        assertEquals(6, PasswordEncoderFactory.calibrateBcryptStrength(Duration.ofMinutes(1), 4, 6));
+    }
+}
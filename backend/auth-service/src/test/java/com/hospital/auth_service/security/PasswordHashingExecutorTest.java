@@ -0,0 +1,68 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_RejectsImmediatelyWhenQueueIsFull() throws Exception {
+        executor = newExecutor(Duration.ofSeconds(5));
+        CountDownLatch running = new CountDownLatch(1);
+
+        CompletableFuture.runAsync(() -> executor.execute(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> executor.execute(() -> release.await(5, TimeUnit.SECONDS)));
+        while (executor.queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingUnavailableException.class, () -> executor.execute(() -> "hash"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void execute_TimesOutSlowHash() {
+        executor = newExecutor(Duration.ofMillis(50));
+
+        assertThrows(PasswordHashingUnavailableException.class,
+                () -> executor.execute(() -> release.await(5, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    void execute_RunsTaskOffCallerThread() {
+        executor = newExecutor(Duration.ofSeconds(5));
+
+        String threadName = executor.execute(() -> Thread.currentThread().getName());
+
+        assertTrue(threadName.startsWith("password-hashing-"));
+    }
+
+    private static PasswordHashingExecutor newExecutor(Duration timeout) {
+        return new PasswordHashingExecutor(1, 1, timeout,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,65 @@
+package com.hospital.auth_service.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitedLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    private final AtomicLong now = new AtomicLong();
+    private RateLimitedLogger rateLimitedLogger;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitedLogger = new RateLimitedLogger(logger, 2, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    void warnings_BeyondPermitsAreSuppressed() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimitedLogger.warn("Bad token {}: {}", "ExpiredJwtException", i);
+        }
+
+        verify(logger, times(2)).warn(eq("Bad token {}: {}"), any(Object.class), any(Object.class));
+    }
+
+    @Test
+    void nextWindow_ReportsSuppressedCount() {
+        when(logger.isWarnEnabled()).thenReturn(true);
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn("Bad token {}: {}", "ExpiredJwtException", i);
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        rateLimitedLogger.warn("Bad token {}: {}", "MalformedJwtException", "x");
+
+        verify(logger).warn("Bad token {}: {} ({} similar warnings suppressed)", "MalformedJwtException", "x", 3L);
+    }
+
+    @Test
+    void disabledLevel_DoesNothing() {
+        when(logger.isWarnEnabled()).thenReturn(false);
+
+        rateLimitedLogger.warn("Bad token {}: {}", "ExpiredJwtException", "x");
+
+        verify(logger, never()).warn(anyString(), any(Object.class), any(Object.class));
+    }
+}
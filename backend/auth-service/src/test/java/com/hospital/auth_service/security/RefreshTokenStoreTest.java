@@ -0,0 +1,68 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.repository.RefreshTokenFamilyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenFamilyRepository repository;
+
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(repository, 60_000L, 1_000);
+    }
+
+    @Test
+    void start_PersistsNewFamily() {
+        RefreshTokenStore.Issued issued = store.start("test@example.com");
+
+        verify(repository).insert(eq(issued.familyId()), eq("test@example.com"), eq(issued.tokenId()), any());
+    }
+
+    @Test
+    void rotate_MovesFamilyToNextToken() {
+        UUID familyId = UUID.randomUUID();
+        when(repository.rotate(eq(familyId), eq("current"), anyString(), any())).thenReturn(1);
+
+        Optional<RefreshTokenStore.Issued> next = store.rotate(familyId, "current");
+
+        assertTrue(next.isPresent());
+        assertNotEquals("current", next.get().tokenId());
+        verify(repository, never()).revoke(any());
+    }
+
+    @Test
+    void rotate_RevokesFamilyOnReuse() {
+        UUID familyId = UUID.randomUUID();
+        when(repository.rotate(eq(familyId), eq("stale"), anyString(), any())).thenReturn(0);
+
+        assertTrue(store.rotate(familyId, "stale").isEmpty());
+        verify(repository).revoke(familyId);
+    }
+
+    @Test
+    void rotate_ShortCircuitsRevokedFamilyInMemory() {
+        UUID familyId = UUID.randomUUID();
+        store.revoke(familyId);
+
+        assertTrue(store.rotate(familyId, "any").isEmpty());
+        verify(repository, never()).rotate(any(), any(), any(), any());
+    }
+}
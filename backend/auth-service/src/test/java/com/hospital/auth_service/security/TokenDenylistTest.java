@@ -0,0 +1,87 @@
+package com.hospital.auth_service.security;
+
+import com.hospital.auth_service.entity.RevokedToken;
+import com.hospital.auth_service.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+    @Mock
+    private RevokedTokenRepository repository;
+
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new TokenDenylist(repository, 1_000, 0.01);
+    }
+
+    @Test
+    void revoke_PersistsAndDeniesToken() {
+        denylist.revoke("jti-1", Instant.now().plusSeconds(60));
+
+        assertTrue(denylist.isRevoked("jti-1"));
+        assertFalse(denylist.isRevoked("jti-2"));
+        assertFalse(denylist.isRevoked(null));
+        verify(repository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revoke_IgnoresExpiredToken() {
+        denylist.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertFalse(denylist.isRevoked("jti-1"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void load_RestoresPersistedRevocations() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(revoked("jti-1", Instant.now().plusSeconds(60))));
+
+        denylist.load();
+
+        assertTrue(denylist.isRevoked("jti-1"));
+    }
+
+    @Test
+    void sync_PicksUpOtherInstancesAndPrunesExpired() {
+        Instant now = Instant.now();
+        denylist.revoke("short-lived", now.plusMillis(1));
+        when(repository.findByRevokedAtAfterAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(revoked("from-peer", now.plusSeconds(60))));
+
+        denylist.prune(now.plusSeconds(1));
+        denylist.sync();
+
+        assertFalse(denylist.isRevoked("short-lived"));
+        assertTrue(denylist.isRevoked("from-peer"));
+        assertEquals(1, denylist.size());
+        verify(repository).deleteExpired(any());
+    }
+
+    @Test
+    void revokedSince_ReadsUnexpiredRevocationsFromTheStore() {
+        Instant since = Instant.now().minusSeconds(30);
+        List<RevokedToken> stored = List.of(revoked("from-peer", Instant.now().plusSeconds(60)));
+        when(repository.findByRevokedAtAfterAndExpiresAtAfter(eq(since), any())).thenReturn(stored);
+
+        assertEquals(stored, denylist.revokedSince(since));
+    }
+
+    private static RevokedToken revoked(String jti, Instant expiresAt) {
+        return RevokedToken.builder().jti(jti).expiresAt(expiresAt).revokedAt(Instant.now()).build();
+    }
+}
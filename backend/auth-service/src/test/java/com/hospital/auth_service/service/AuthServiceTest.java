@@ -1,27 +1,44 @@
 package com.hospital.auth_service.service;
 
 import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.config.ValidatedToken;
 import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.entity.UserChangedEvent;
 import com.hospital.auth_service.exception.UserAlreadyExistsException;
 import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.AuthenticatedUser;
+import com.hospital.auth_service.security.CustomUserDetailsService;
+import com.hospital.auth_service.security.RefreshTokenStore;
+import com.hospital.auth_service.security.TokenDenylist;
 import com.hospital.common.dto.AuthRequest;
 import com.hospital.common.dto.AuthResponse;
+import com.hospital.common.dto.BatchRegistrationRequest;
+import com.hospital.common.dto.BatchRegistrationResult;
+import com.hospital.common.enums.BatchRegistrationStatus;
 import com.hospital.common.enums.UserRole;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -43,71 +60,212 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private UserBatchWriter userBatchWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
     @InjectMocks
     private AuthService authService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(authService, "batchChunkSize", 2);
+    }
+
     @Test
     void register_Success() {
         // Arrange
         AuthRequest request = new AuthRequest("test@example.com", "password");
         UserRole role = UserRole.PATIENT;
-        User savedUser = User.builder()
-                .id(UUID.randomUUID())
-                .email(request.getEmail())
-                .role(role)
-                .build();
+        UUID userId = UUID.randomUUID();
 
-        when(userRepository.existsByEmail(request.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.insertIfAbsent(any(), eq(request.getEmail()), eq("encodedPassword"), eq(role.name()), any(), any()))
+                .thenReturn(Optional.of(userId));
 
         // Act
         AuthResponse response = authService.register(request, role);
 
         // Assert
         assertNotNull(response);
-        assertEquals(savedUser.getId(), response.getUserId());
-        assertEquals(savedUser.getEmail(), response.getEmail());
-        verify(userRepository).save(any(User.class));
+        assertEquals(userId, response.getUserId());
+        assertEquals(request.getEmail(), response.getEmail());
+        verify(userRepository, never()).existsByEmail(any());
+        verify(eventPublisher).publishEvent(new UserChangedEvent(userId, request.getEmail()));
     }
 
     @Test
     void register_UserAlreadyExists_ThrowsException() {
         // Arrange
         AuthRequest request = new AuthRequest("test@example.com", "password");
-        when(userRepository.existsByEmail(request.getEmail())).thenReturn(true);
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.insertIfAbsent(any(), any(), any(), any(), any(), any())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(UserAlreadyExistsException.class, () -> authService.register(request, UserRole.PATIENT));
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void registerBatch_ReportsPerRowResults() {
+        // Arrange
+        List<BatchRegistrationRequest> requests = List.of(
+                new BatchRegistrationRequest("new1@example.com", "pw", UserRole.DOCTOR, "Dr One"),
+                new BatchRegistrationRequest("existing@example.com", "pw", null, null),
+                new BatchRegistrationRequest("new1@example.com", "pw", null, null),
+                new BatchRegistrationRequest("", "pw", null, null),
+                new BatchRegistrationRequest("new2@example.com", "pw", null, null));
+
+        when(userRepository.findExistingEmails(any())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.contains("existing@example.com") ? List.of("existing@example.com") : List.of();
+        });
+        when(passwordEncoder.encode("pw")).thenReturn("encodedPassword");
+        when(userBatchWriter.insertChunk(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(UUID.randomUUID()));
+            return users;
+        });
+
+        // Act
+        List<BatchRegistrationResult> results = authService.registerBatch(requests);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals(BatchRegistrationStatus.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getUserId());
+        assertEquals(BatchRegistrationStatus.DUPLICATE, results.get(1).getStatus());
+        assertEquals(BatchRegistrationStatus.DUPLICATE, results.get(2).getStatus());
+        assertEquals(BatchRegistrationStatus.INVALID, results.get(3).getStatus());
+        assertEquals(BatchRegistrationStatus.CREATED, results.get(4).getStatus());
+        verify(userBatchWriter, times(1)).insertChunk(anyList());
+    }
+
+    @Test
+    void registerBatch_RejectsOversizedBatch() {
+        ReflectionTestUtils.setField(authService, "maxBatchSize", 1);
+        List<BatchRegistrationRequest> requests = List.of(
+                new BatchRegistrationRequest("a@example.com", "pw", null, null),
+                new BatchRegistrationRequest("b@example.com", "pw", null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> authService.registerBatch(requests));
+    }
+
     @Test
     void loginJwt_Success() {
         // Arrange
         AuthRequest request = new AuthRequest("test@example.com", "password");
-        User user = User.builder()
+        AuthenticatedUser principal = AuthenticatedUser.builder()
                 .id(UUID.randomUUID())
                 .email(request.getEmail())
-                .password("password") // Ensure password is set
+                .password("password")
                 .role(UserRole.PATIENT)
+                .active(true)
                 .build();
-        org.springframework.security.core.userdetails.User userDetails = new org.springframework.security.core.userdetails.User(
-                user.getEmail(), user.getPassword(), java.util.Collections.emptyList());
         Authentication authentication = mock(Authentication.class);
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        lenient().when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(user));
-        when(jwtConfig.generateToken(user.getEmail(), user.getRole().name())).thenReturn("jwt-token");
-        when(jwtConfig.generateRefreshToken(user.getEmail())).thenReturn("refresh-token");
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(jwtConfig.generateToken(principal.getId(), principal.getEmail(), principal.getRole().name())).thenReturn("jwt-token");
+        UUID familyId = UUID.randomUUID();
+        when(refreshTokenStore.start(principal.getEmail())).thenReturn(new RefreshTokenStore.Issued(familyId, "r-jti"));
+        when(jwtConfig.generateRefreshToken(principal.getEmail(), familyId, "r-jti")).thenReturn("refresh-token");
 
         // Act
         AuthResponse response = authService.loginJwt(request);
 
         // Assert
         assertNotNull(response);
+        assertEquals(principal.getId(), response.getUserId());
         assertEquals("jwt-token", response.getToken());
         assertEquals("refresh-token", response.getRefreshToken());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void logout_RevokesAccessAndRefreshTokens() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        UUID familyId = UUID.randomUUID();
+        when(jwtConfig.validate("access")).thenReturn(token("a-jti", null, "PATIENT", expiresAt));
+        when(jwtConfig.validate("refresh")).thenReturn(token("r-jti", familyId, null, expiresAt));
+
+        authService.logout("access", "refresh");
+
+        verify(tokenDenylist).revoke("a-jti", expiresAt);
+        verify(tokenDenylist).revoke("r-jti", expiresAt);
+        verify(refreshTokenStore).revoke(familyId);
+    }
+
+    @Test
+    void refreshToken_RotatesWithinFamily() {
+        UUID familyId = UUID.randomUUID();
+        AuthenticatedUser user = activeUser();
+        when(jwtConfig.validate("refresh")).thenReturn(token("r-jti", familyId, null, Instant.now().plusSeconds(60)));
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(refreshTokenStore.rotate(familyId, "r-jti")).thenReturn(Optional.of(new RefreshTokenStore.Issued(familyId, "next-jti")));
+        when(jwtConfig.generateToken(user.getId(), user.getEmail(), "PATIENT")).thenReturn("jwt-token");
+        when(jwtConfig.generateRefreshToken(user.getEmail(), familyId, "next-jti")).thenReturn("next-refresh");
+
+        AuthResponse response = authService.refreshToken("refresh");
+
+        assertEquals("jwt-token", response.getToken());
+        assertEquals("next-refresh", response.getRefreshToken());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void refreshToken_RejectsReusedToken() {
+        UUID familyId = UUID.randomUUID();
+        AuthenticatedUser user = activeUser();
+        when(jwtConfig.validate("refresh")).thenReturn(token("r-jti", familyId, null, Instant.now().plusSeconds(60)));
+        when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(refreshTokenStore.rotate(familyId, "r-jti")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> authService.refreshToken("refresh"));
+        verify(jwtConfig, never()).generateToken(any(), any(), any());
+    }
+
+    @Test
+    void refreshToken_RejectsTokenWithoutFamily() {
+        when(jwtConfig.validate("refresh")).thenReturn(token("r-jti", null, null, Instant.now().plusSeconds(60)));
+
+        assertThrows(RuntimeException.class, () -> authService.refreshToken("refresh"));
+        verify(refreshTokenStore, never()).rotate(any(), any());
+    }
+
+    @Test
+    void refreshToken_RejectsRevokedToken() {
+        when(jwtConfig.validate("refresh")).thenReturn(token("r-jti", UUID.randomUUID(), null, Instant.now().plusSeconds(60)));
+        when(tokenDenylist.isRevoked("r-jti")).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> authService.refreshToken("refresh"));
+        verify(refreshTokenStore, never()).rotate(any(), any());
+    }
+
+    private static ValidatedToken token(String tokenId, UUID familyId, String role, Instant expiresAt) {
+        return new ValidatedToken(tokenId, familyId != null ? familyId.toString() : null, "test@example.com", null,
+                role, Instant.now(), expiresAt);
+    }
+
+    private static AuthenticatedUser activeUser() {
+        return AuthenticatedUser.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .password("encoded")
+                .role(UserRole.PATIENT)
+                .active(true)
+                .build();
     }
 }
@@ -0,0 +1,78 @@
+package com.hospital.auth_service.service;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.entity.User;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.CustomUserDetailsService;
+import com.hospital.auth_service.security.RefreshTokenStore;
+import com.hospital.auth_service.security.TokenDenylist;
+import com.hospital.common.dto.BatchRegistrationRequest;
+import com.hospital.common.dto.BatchRegistrationResult;
+import com.hospital.common.enums.BatchRegistrationStatus;
+import com.hospital.common.enums.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Batch registration against the real repository when another registration takes an email between the
+ * uniqueness query and the insert, so the chunk's insert fails and is retried row by row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(UserBatchWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BatchRegistrationConflictTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBatchWriter userBatchWriter;
+
+    @Test
+    void emailTakenConcurrently_IsDuplicateAndTheRestAreCreated() {
+        userRepository.save(User.builder()
+                .email("taken@hospital.com")
+                .password("{noop}secret")
+                .role(UserRole.PATIENT)
+                .build());
+        // The uniqueness query runs before the concurrent registration commits
+        UserRepository racingRepository = mock(UserRepository.class, delegatesTo(userRepository));
+        doReturn(List.of()).when(racingRepository).findExistingEmails(anyCollection());
+
+        List<BatchRegistrationResult> results = authService(racingRepository).registerBatch(List.of(
+                new BatchRegistrationRequest("first@hospital.com", "pw", UserRole.PATIENT, "First"),
+                new BatchRegistrationRequest("taken@hospital.com", "pw", UserRole.PATIENT, "Taken"),
+                new BatchRegistrationRequest("third@hospital.com", "pw", UserRole.DOCTOR, "Third")));
+
+        assertEquals(List.of(BatchRegistrationStatus.CREATED, BatchRegistrationStatus.DUPLICATE, BatchRegistrationStatus.CREATED),
+                results.stream().map(BatchRegistrationResult::getStatus).toList());
+        assertNotNull(results.get(0).getUserId());
+        assertNull(results.get(1).getUserId());
+        assertEquals(3, userRepository.count());
+        assertEquals(results.get(2).getUserId(), userRepository.findByEmail("third@hospital.com").orElseThrow().getId());
+    }
+
+    private AuthService authService(UserRepository repository) {
+        AuthService authService = new AuthService(repository, NoOpPasswordEncoder.getInstance(), mock(JwtConfig.class),
+                mock(AuthenticationManager.class), userBatchWriter, mock(ApplicationEventPublisher.class),
+                mock(TokenDenylist.class), mock(RefreshTokenStore.class), mock(CustomUserDetailsService.class));
+        ReflectionTestUtils.setField(authService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(authService, "batchChunkSize", 100);
+        return authService;
+    }
+}
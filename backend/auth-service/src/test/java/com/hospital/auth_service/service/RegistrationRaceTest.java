@@ -0,0 +1,122 @@
+package com.hospital.auth_service.service;
+
+import com.hospital.auth_service.config.JwtConfig;
+import com.hospital.auth_service.exception.UserAlreadyExistsException;
+import com.hospital.auth_service.repository.UserRepository;
+import com.hospital.auth_service.security.CustomUserDetailsService;
+import com.hospital.auth_service.security.RefreshTokenStore;
+import com.hospital.auth_service.security.TokenDenylist;
+import com.hospital.common.dto.AuthRequest;
+import com.hospital.common.enums.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parallel registrations of one email through the transactional {@link AuthService} bean and the real
+ * {@link UserRepository} on PostgreSQL, so the native {@code insert ... on conflict do nothing returning id}
+ * and the unique email constraint are what decide the race. Skipped where Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({AuthService.class, UserBatchWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class RegistrationRaceTest {
+
+    private static final int THREADS = 16;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private JwtConfig jwtConfig;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private TokenDenylist tokenDenylist;
+
+    @MockitoBean
+    private RefreshTokenStore refreshTokenStore;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDuplicates_CreateOneUser() throws Exception {
+        when(passwordEncoder.encode(any())).thenReturn("{noop}password");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        authService.register(new AuthRequest("same@hospital.com", "password"), UserRole.PATIENT);
+                        created.incrementAndGet();
+                    } catch (UserAlreadyExistsException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(1, userRepository.count());
+        assertEquals(UserRole.PATIENT, userRepository.findByEmail("same@hospital.com").orElseThrow().getRole());
+    }
+}
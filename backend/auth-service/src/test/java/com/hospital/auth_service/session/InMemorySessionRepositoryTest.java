@@ -0,0 +1,93 @@
+package com.hospital.auth_service.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySessionRepositoryTest {
+
+    private InMemorySessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemorySessionRepository(4, Duration.ofMinutes(30), null);
+    }
+
+    @Test
+    void savedSession_IsFoundAsIndependentCopy() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setAttribute("role", "DOCTOR");
+        repository.save(session);
+
+        InMemorySessionRepository.TrackedSession found = repository.findById(session.getId());
+        found.setAttribute("role", "ADMIN");
+
+        assertEquals(Duration.ofMinutes(30), found.getMaxInactiveInterval());
+        assertEquals("DOCTOR", repository.findById(session.getId()).getAttribute("role"));
+    }
+
+    @Test
+    void concurrentRequests_KeepEachOthersAttributes() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        repository.save(session);
+        InMemorySessionRepository.TrackedSession first = repository.findById(session.getId());
+        InMemorySessionRepository.TrackedSession second = repository.findById(session.getId());
+
+        first.setAttribute("cart", "a");
+        second.setAttribute("locale", "en");
+        repository.save(first);
+        repository.save(second);
+
+        InMemorySessionRepository.TrackedSession found = repository.findById(session.getId());
+        assertEquals("a", found.getAttribute("cart"));
+        assertEquals("en", found.getAttribute("locale"));
+    }
+
+    @Test
+    void changedSessionId_ReplacesOldId() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setAttribute("role", "DOCTOR");
+        repository.save(session);
+        String oldId = session.getId();
+
+        InMemorySessionRepository.TrackedSession found = repository.findById(oldId);
+        String newId = found.changeSessionId();
+        repository.save(found);
+
+        assertNull(repository.findById(oldId));
+        assertEquals("DOCTOR", repository.findById(newId).getAttribute("role"));
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void expiredSessions_AreNotReturnedAndAreSwept() {
+        InMemorySessionRepository.TrackedSession idle = repository.createSession();
+        idle.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repository.save(idle);
+        InMemorySessionRepository.TrackedSession active = repository.createSession();
+        repository.save(active);
+        InMemorySessionRepository.TrackedSession idleToo = repository.createSession();
+        idleToo.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repository.save(idleToo);
+
+        assertNull(repository.findById(idle.getId()));
+        repository.sweep();
+
+        assertEquals(1, repository.size());
+        assertNotNull(repository.findById(active.getId()));
+    }
+
+    @Test
+    void deletedSession_IsGone() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        repository.save(session);
+
+        repository.deleteById(session.getId());
+
+        assertNull(repository.findById(session.getId()));
+    }
+}
@@ -0,0 +1,146 @@
+package com.hospital.auth_service.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionWriteBehindTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SessionWriteBehind writeBehind;
+    private InMemorySessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("org/springframework/session/jdbc/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        writeBehind = newWriteBehind();
+        repository = new InMemorySessionRepository(4, Duration.ofMinutes(30), writeBehind);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void saves_AreWrittenOnFlushOnly() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setAttribute("role", "DOCTOR");
+        repository.save(session);
+
+        assertEquals(0, count("SPRING_SESSION"));
+
+        writeBehind.flush();
+
+        assertEquals(1, count("SPRING_SESSION"));
+        assertEquals(1, count("SPRING_SESSION_ATTRIBUTES"));
+        assertEquals(0, writeBehind.pendingSessions());
+    }
+
+    @Test
+    void manySavesInOneInterval_AreOneRowUpdate() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        repository.save(session);
+        writeBehind.flush();
+
+        Instant lastAccess = Instant.now().plusSeconds(5);
+        for (int i = 0; i < 100; i++) {
+            InMemorySessionRepository.TrackedSession request = repository.findById(session.getId());
+            request.setLastAccessedTime(lastAccess);
+            repository.save(request);
+        }
+        writeBehind.flush();
+
+        assertEquals(lastAccess.toEpochMilli(), jdbcTemplate.queryForObject(
+                "SELECT LAST_ACCESS_TIME FROM SPRING_SESSION", Long.class));
+    }
+
+    @Test
+    void onlyChangedAttributes_AreRewritten() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setAttribute("role", "DOCTOR");
+        session.setAttribute("locale", "en");
+        repository.save(session);
+        writeBehind.flush();
+        // Marks the stored row so a rewrite would be visible
+        jdbcTemplate.update("UPDATE SPRING_SESSION_ATTRIBUTES SET ATTRIBUTE_BYTES = ? WHERE ATTRIBUTE_NAME = 'role'",
+                (Object) new byte[]{1});
+
+        InMemorySessionRepository.TrackedSession request = repository.findById(session.getId());
+        request.setAttribute("locale", "fr");
+        request.removeAttribute("missing");
+        repository.save(request);
+        writeBehind.flush();
+
+        assertArrayEquals(new byte[]{1}, jdbcTemplate.queryForObject(
+                "SELECT ATTRIBUTE_BYTES FROM SPRING_SESSION_ATTRIBUTES WHERE ATTRIBUTE_NAME = 'role'", byte[].class));
+        assertEquals(2, count("SPRING_SESSION_ATTRIBUTES"));
+    }
+
+    @Test
+    void sessions_AreReloadedAfterRestart() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setAttribute("role", "DOCTOR");
+        repository.save(session);
+        InMemorySessionRepository.TrackedSession rotated = repository.findById(session.getId());
+        String newId = rotated.changeSessionId();
+        repository.save(rotated);
+        writeBehind.flush();
+
+        InMemorySessionRepository restarted = new InMemorySessionRepository(4, Duration.ofMinutes(30), newWriteBehind());
+
+        assertNull(restarted.findById(session.getId()));
+        assertEquals("DOCTOR", restarted.findById(newId).getAttribute("role"));
+    }
+
+    @Test
+    void staleRows_AreNotLoadedBeforeFlush() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        repository.save(session);
+        writeBehind.flush();
+
+        repository.deleteById(session.getId());
+
+        assertNull(repository.findById(session.getId()));
+        writeBehind.flush();
+        assertEquals(0, count("SPRING_SESSION"));
+    }
+
+    @Test
+    void expiredRows_AreDeleted() {
+        InMemorySessionRepository.TrackedSession session = repository.createSession();
+        session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+        repository.save(session);
+        writeBehind.flush();
+
+        writeBehind.deleteExpired();
+
+        assertEquals(0, count("SPRING_SESSION"));
+    }
+
+    private SessionWriteBehind newWriteBehind() {
+        return new SessionWriteBehind(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(database)), "SPRING_SESSION", 100);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,18 @@
+package com.hospital.common.dto;
+
+import com.hospital.common.enums.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRegistrationRequest {
+    private String email;
+    private String password;
+    private UserRole role;
+    private String name;
+}
@@ -0,0 +1,20 @@
+package com.hospital.common.dto;
+
+import com.hospital.common.enums.BatchRegistrationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRegistrationResult {
+    private String email;
+    private UUID userId;
+    private BatchRegistrationStatus status;
+    private String message;
+}
@@ -0,0 +1,7 @@
+package com.hospital.common.enums;
+
+public enum BatchRegistrationStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID
+}
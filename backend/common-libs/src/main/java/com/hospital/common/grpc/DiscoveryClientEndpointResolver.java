@@ -0,0 +1,40 @@
+package com.hospital.common.grpc;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Resolves endpoints from the service registry. Instances advertise their gRPC port in the
+ * {@value #GRPC_PORT_METADATA} metadata entry, e.g. {@code eureka.instance.metadata-map.grpc-port=9091};
+ * instances without it do not serve gRPC and are skipped.
+ */
+public class DiscoveryClientEndpointResolver implements GrpcEndpointResolver {
+
+    public static final String GRPC_PORT_METADATA = "grpc-port";
+
+    private final DiscoveryClient discoveryClient;
+
+    public DiscoveryClientEndpointResolver(DiscoveryClient discoveryClient) {
+        this.discoveryClient = discoveryClient;
+    }
+
+    @Override
+    public List<InetSocketAddress> resolve(String serviceName) {
+        return discoveryClient.getInstances(serviceName).stream()
+                .map(DiscoveryClientEndpointResolver::grpcAddress)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static InetSocketAddress grpcAddress(ServiceInstance instance) {
+        String port = instance.getMetadata().get(GRPC_PORT_METADATA);
+        if (port == null || port.isBlank()) {
+            return null;
+        }
+        return new InetSocketAddress(instance.getHost(), Integer.parseInt(port.trim()));
+    }
+}
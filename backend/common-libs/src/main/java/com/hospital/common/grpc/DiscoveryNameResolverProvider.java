@@ -0,0 +1,142 @@
+package com.hospital.common.grpc;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves {@code discovery:///<service-name>} targets through a {@link GrpcEndpointResolver}, re-reading
+ * the endpoints every {@code refreshInterval} and whenever the channel loses a connection.
+ */
+public class DiscoveryNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME = "discovery";
+
+    private final GrpcEndpointResolver endpointResolver;
+    private final Duration refreshInterval;
+
+    public DiscoveryNameResolverProvider(GrpcEndpointResolver endpointResolver, Duration refreshInterval) {
+        this.endpointResolver = endpointResolver;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public static String target(String serviceName) {
+        return SCHEME + ":///" + serviceName;
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme()) || targetUri.getPath() == null || targetUri.getPath().length() < 2) {
+            return null;
+        }
+        return new DiscoveryNameResolver(targetUri.getPath().substring(1), args);
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    private final class DiscoveryNameResolver extends NameResolver {
+
+        private final String serviceName;
+        private final SynchronizationContext syncContext;
+        private final ScheduledExecutorService scheduler;
+        private final Executor executor;
+
+        // Only touched from syncContext
+        private Listener2 listener;
+        private SynchronizationContext.ScheduledHandle nextRefresh;
+        private boolean resolving;
+        private boolean shutdown;
+
+        DiscoveryNameResolver(String serviceName, Args args) {
+            this.serviceName = serviceName;
+            this.syncContext = args.getSynchronizationContext();
+            this.scheduler = args.getScheduledExecutorService();
+            this.executor = args.getOffloadExecutor() != null ? args.getOffloadExecutor() : scheduler;
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return serviceName;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            if (nextRefresh != null) {
+                nextRefresh.cancel();
+            }
+        }
+
+        private void resolve() {
+            if (resolving || shutdown) {
+                return;
+            }
+            resolving = true;
+            executor.execute(() -> {
+                List<InetSocketAddress> addresses = null;
+                RuntimeException failure = null;
+                try {
+                    addresses = endpointResolver.resolve(serviceName);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                List<InetSocketAddress> resolved = addresses;
+                RuntimeException error = failure;
+                syncContext.execute(() -> onResolved(resolved, error));
+            });
+        }
+
+        private void onResolved(List<InetSocketAddress> addresses, RuntimeException error) {
+            resolving = false;
+            if (shutdown) {
+                return;
+            }
+            if (error != null) {
+                listener.onError(Status.UNAVAILABLE.withDescription("Could not resolve " + serviceName).withCause(error));
+            } else if (addresses.isEmpty()) {
+                listener.onError(Status.UNAVAILABLE.withDescription("No gRPC endpoints registered for " + serviceName));
+            } else {
+                listener.onResult(ResolutionResult.newBuilder()
+                        .setAddresses(addresses.stream().map(EquivalentAddressGroup::new).toList())
+                        .build());
+            }
+            if (nextRefresh == null || !nextRefresh.isPending()) {
+                nextRefresh = syncContext.schedule(this::resolve, refreshInterval.toMillis(), TimeUnit.MILLISECONDS, scheduler);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.hospital.common.grpc;
+
+import io.grpc.Status;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deadline and retry behaviour for a set of methods, rendered as a gRPC service config method entry.
+ * <p>
+ * Without a {@code hedgingDelay}, a failed attempt with one of {@code retryableStatusCodes} is retried
+ * after an exponential backoff. With one, a further attempt is sent every {@code hedgingDelay} until one
+ * answers, which trims tail latency but multiplies load, so only use it for idempotent reads.
+ */
+@Value
+@Builder
+public class GrpcCallPolicy {
+
+    /**
+     * Deadline applied when the caller sets none, and upper bound of one the caller sets.
+     */
+    Duration timeout;
+
+    @Builder.Default
+    int maxAttempts = 1;
+
+    @Builder.Default
+    Duration initialBackoff = Duration.ofMillis(50);
+
+    @Builder.Default
+    Duration maxBackoff = Duration.ofSeconds(1);
+
+    @Builder.Default
+    double backoffMultiplier = 2.0;
+
+    Duration hedgingDelay;
+
+    @Builder.Default
+    Set<Status.Code> retryableStatusCodes = Set.of(Status.Code.UNAVAILABLE);
+
+    Map<String, Object> toMethodConfig(List<Map<String, String>> names) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("name", names);
+        if (timeout != null) {
+            config.put("timeout", duration(timeout));
+        }
+        if (maxAttempts > 1) {
+            List<String> codes = retryableStatusCodes.stream().map(Enum::name).sorted().toList();
+            if (hedgingDelay != null) {
+                config.put("hedgingPolicy", Map.of(
+                        "maxAttempts", (double) maxAttempts,
+                        "hedgingDelay", duration(hedgingDelay),
+                        "nonFatalStatusCodes", codes));
+            } else {
+                config.put("retryPolicy", Map.of(
+                        "maxAttempts", (double) maxAttempts,
+                        "initialBackoff", duration(initialBackoff),
+                        "maxBackoff", duration(maxBackoff),
+                        "backoffMultiplier", backoffMultiplier,
+                        "retryableStatusCodes", codes));
+            }
+        }
+        return config;
+    }
+
+    private static String duration(Duration duration) {
+        return BigDecimal.valueOf(duration.toNanos(), 9).stripTrailingZeros().toPlainString() + "s";
+    }
+}
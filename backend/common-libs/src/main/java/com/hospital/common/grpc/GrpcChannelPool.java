@@ -0,0 +1,236 @@
+package com.hospital.common.grpc;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Long-lived channels to other services, opened on first use and shared by all stubs:
+ * <pre>
+ * AuthServiceGrpc.newBlockingStub(pool.channel("auth-service")).validateToken(request);
+ * </pre>
+ * Each service gets {@code channelsPerService} channels used round-robin, so busy callers are not
+ * limited by the concurrent stream cap of a single HTTP/2 connection. Each channel balances
+ * round-robin over all registered instances and applies the configured {@link GrpcCallPolicy}s.
+ */
+public final class GrpcChannelPool implements AutoCloseable {
+
+    private final Function<String, ManagedChannelBuilder<?>> channelBuilders;
+    private final int channelsPerService;
+    private final Duration keepAliveTime;
+    private final Map<String, Object> serviceConfig;
+    private final List<ClientInterceptor> interceptors;
+    private final Duration shutdownTimeout;
+    private final Map<String, ServiceChannels> channels = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private GrpcChannelPool(Builder builder) {
+        this.channelBuilders = builder.channelBuilders;
+        this.channelsPerService = builder.channelsPerService;
+        this.keepAliveTime = builder.keepAliveTime;
+        this.serviceConfig = builder.serviceConfig();
+        this.interceptors = List.copyOf(builder.interceptors);
+        this.shutdownTimeout = builder.shutdownTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Channel channel(String serviceName) {
+        if (closed) {
+            throw new IllegalStateException("Channel pool is closed");
+        }
+        return channels.computeIfAbsent(serviceName, this::open).next();
+    }
+
+    /**
+     * The service config every channel is built with, for logging and tests.
+     */
+    public Map<String, Object> serviceConfig() {
+        return serviceConfig;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        channels.values().forEach(service -> service.channels.forEach(ManagedChannel::shutdown));
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (ServiceChannels service : channels.values()) {
+            for (ManagedChannel channel : service.channels) {
+                try {
+                    if (!channel.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        channel.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    channel.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        channels.clear();
+    }
+
+    private ServiceChannels open(String serviceName) {
+        List<ManagedChannel> opened = new ArrayList<>(channelsPerService);
+        for (int i = 0; i < channelsPerService; i++) {
+            ManagedChannelBuilder<?> builder = channelBuilders.apply(serviceName)
+                    .defaultServiceConfig(serviceConfig)
+                    .enableRetry()
+                    .intercept(interceptors);
+            if (keepAliveTime != null) {
+                builder.keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                        .keepAliveWithoutCalls(true);
+            }
+            opened.add(builder.build());
+        }
+        return new ServiceChannels(opened);
+    }
+
+    private static final class ServiceChannels {
+        private final List<ManagedChannel> channels;
+        private final AtomicInteger next = new AtomicInteger();
+
+        ServiceChannels(List<ManagedChannel> channels) {
+            this.channels = channels;
+        }
+
+        Channel next() {
+            return channels.get(Math.floorMod(next.getAndIncrement(), channels.size()));
+        }
+    }
+
+    public static final class Builder {
+
+        private Function<String, ManagedChannelBuilder<?>> channelBuilders;
+        private int channelsPerService = 2;
+        private Duration keepAliveTime = Duration.ofSeconds(30);
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+        private GrpcCallPolicy defaultPolicy = GrpcCallPolicy.builder()
+                .timeout(Duration.ofSeconds(5))
+                .maxAttempts(3)
+                .build();
+        private final Map<List<Map<String, String>>, GrpcCallPolicy> policies = new LinkedHashMap<>();
+        private final List<ClientInterceptor> interceptors = new ArrayList<>();
+        private int retryMaxTokens = 10;
+        private double retryTokenRatio = 0.1;
+
+        private Builder() {
+        }
+
+        /**
+         * Resolves {@code discovery:///<service-name>} through {@code endpointResolver} over plaintext
+         * HTTP/2, which is how services reach each other inside the cluster.
+         */
+        @SuppressWarnings("deprecation")
+        public Builder endpointResolver(GrpcEndpointResolver endpointResolver, Duration refreshInterval) {
+            // A resolver per pool rather than the JVM-wide registry, so pools with different resolvers do not clash
+            DiscoveryNameResolverProvider provider = new DiscoveryNameResolverProvider(endpointResolver, refreshInterval);
+            return channelBuilder(serviceName -> ManagedChannelBuilder
+                    .forTarget(DiscoveryNameResolverProvider.target(serviceName))
+                    .nameResolverFactory(provider)
+                    .usePlaintext());
+        }
+
+        /**
+         * Creates the unconfigured builder for a service's channels, e.g. an in-process channel in tests.
+         */
+        public Builder channelBuilder(Function<String, ManagedChannelBuilder<?>> channelBuilders) {
+            this.channelBuilders = channelBuilders;
+            return this;
+        }
+
+        public Builder channelsPerService(int channelsPerService) {
+            if (channelsPerService < 1) {
+                throw new IllegalArgumentException("channelsPerService must be at least 1");
+            }
+            this.channelsPerService = channelsPerService;
+            return this;
+        }
+
+        /**
+         * Interval of HTTP/2 pings on idle connections, or {@code null} to disable them. Must not be
+         * shorter than the server's {@code grpc.server.permit-keep-alive-time}.
+         */
+        public Builder keepAliveTime(Duration keepAliveTime) {
+            this.keepAliveTime = keepAliveTime;
+            return this;
+        }
+
+        public Builder shutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+            return this;
+        }
+
+        /**
+         * Policy for methods without a more specific one. Defaults to a 5s deadline and up to three
+         * attempts on {@code UNAVAILABLE}.
+         */
+        public Builder defaultPolicy(GrpcCallPolicy policy) {
+            this.defaultPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Policy for all methods of a service, by its full proto name, e.g. {@code com.hospital.common.proto.AuthService}.
+         */
+        public Builder servicePolicy(String serviceName, GrpcCallPolicy policy) {
+            policies.put(List.of(Map.of("service", serviceName)), policy);
+            return this;
+        }
+
+        public Builder methodPolicy(String serviceName, String methodName, GrpcCallPolicy policy) {
+            policies.put(List.of(Map.of("service", serviceName, "method", methodName)), policy);
+            return this;
+        }
+
+        /**
+         * Caps retries and hedged attempts once more than {@code maxTokens / 2} calls failed recently,
+         * so a struggling service is not hit with a multiple of its normal load.
+         */
+        public Builder retryThrottling(int maxTokens, double tokenRatio) {
+            this.retryMaxTokens = maxTokens;
+            this.retryTokenRatio = tokenRatio;
+            return this;
+        }
+
+        public Builder interceptor(ClientInterceptor interceptor) {
+            interceptors.add(interceptor);
+            return this;
+        }
+
+        public GrpcChannelPool build() {
+            if (channelBuilders == null) {
+                throw new IllegalStateException("Either endpointResolver or channelBuilder must be set");
+            }
+            return new GrpcChannelPool(this);
+        }
+
+        private Map<String, Object> serviceConfig() {
+            List<Map<String, Object>> methodConfigs = new ArrayList<>();
+            policies.forEach((names, policy) -> methodConfigs.add(policy.toMethodConfig(names)));
+            // An entry without service or method name applies to every other method
+            methodConfigs.add(defaultPolicy.toMethodConfig(List.of(Map.of())));
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("loadBalancingConfig", List.of(Map.of("round_robin", Map.of())));
+            config.put("methodConfig", methodConfigs);
+            config.put("retryThrottling", Map.of(
+                    "maxTokens", (double) retryMaxTokens,
+                    "tokenRatio", retryTokenRatio));
+            return config;
+        }
+    }
+}
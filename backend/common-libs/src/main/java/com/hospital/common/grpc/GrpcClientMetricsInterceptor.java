@@ -0,0 +1,68 @@
+package com.hospital.common.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records {@code grpc.client.calls} latency histograms per method and status code. Applied to the
+ * channel, so a call is timed once from start to close including any retries or hedged attempts.
+ */
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+
+    public static final String METRIC_NAME = "grpc.client.calls";
+
+    private static final int STATUS_CODES = Status.Code.values().length;
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public GrpcClientMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        Timer[] byStatus = timers.computeIfAbsent(method.getFullMethodName(), name -> new Timer[STATUS_CODES]);
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                long startNanos = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        timer(method, byStatus, status.getCode()).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private Timer timer(MethodDescriptor<?, ?> method, Timer[] byStatus, Status.Code code) {
+        Timer timer = byStatus[code.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder(METRIC_NAME)
+                    .tag("service", String.valueOf(method.getServiceName()))
+                    .tag("method", String.valueOf(method.getBareMethodName()))
+                    .tag("status", code.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            byStatus[code.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hospital.common.grpc;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Looks up the gRPC endpoints currently serving a logical service name such as {@code auth-service}.
+ * Called off the request path by {@link DiscoveryNameResolverProvider}, so implementations may block.
+ */
+@FunctionalInterface
+public interface GrpcEndpointResolver {
+
+    List<InetSocketAddress> resolve(String serviceName);
+}
@@ -0,0 +1,40 @@
+package com.hospital.common.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+
+/**
+ * Sends the shared service credential with every call, for servers guarded by
+ * {@link ServiceCredentialServerInterceptor}:
+ * <pre>
+ * GrpcChannelPool.builder().interceptor(new ServiceCredentialClientInterceptor(credential))
+ * </pre>
+ */
+public class ServiceCredentialClientInterceptor implements ClientInterceptor {
+
+    private final String credential;
+
+    public ServiceCredentialClientInterceptor(String credential) {
+        if (credential == null || credential.isBlank()) {
+            throw new IllegalArgumentException("Service credential must not be blank");
+        }
+        this.credential = credential;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                headers.put(ServiceCredentialServerInterceptor.CREDENTIAL_KEY, credential);
+                super.start(responseListener, headers);
+            }
+        };
+    }
+}
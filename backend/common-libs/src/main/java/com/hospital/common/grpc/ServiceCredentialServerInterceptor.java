@@ -0,0 +1,42 @@
+package com.hospital.common.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Rejects calls that do not carry the shared service credential with {@code UNAUTHENTICATED}, so only
+ * services holding it can reach a gRPC server that sits beside, not behind, the gateway.
+ */
+public class ServiceCredentialServerInterceptor implements ServerInterceptor {
+
+    public static final Metadata.Key<String> CREDENTIAL_KEY =
+            Metadata.Key.of("x-service-credential", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final byte[] credential;
+
+    public ServiceCredentialServerInterceptor(String credential) {
+        if (credential == null || credential.isBlank()) {
+            throw new IllegalArgumentException("Service credential must not be blank");
+        }
+        this.credential = credential.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String presented = headers.get(CREDENTIAL_KEY);
+        // Constant time, so the credential cannot be guessed byte by byte from response times
+        if (presented == null || !MessageDigest.isEqual(credential, presented.getBytes(StandardCharsets.UTF_8))) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Missing or invalid service credential"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hospital.common.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings. Lookups hash the characters in place and touch
+ * only primitive state, so a miss costs a few array reads and no allocation.
+ * <p>
+ * Used by auth-service and the gateway to answer "is this token id revoked?" without a lookup for
+ * the common case of a token that is not.
+ */
+public final class BloomFilter {
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+    }
+
+    /**
+     * Returns a filter holding {@code keys}, sized for at least {@code expectedEntries} and with room for
+     * the keys to double. Entries cannot be removed from a Bloom filter, so this is how expired ones
+     * are dropped: build a new filter from the keys that remain.
+     */
+    public static BloomFilter of(Collection<? extends CharSequence> keys, int expectedEntries, double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, keys.size() * 2), falsePositiveRate);
+        keys.forEach(filter::put);
+        return filter;
+    }
+
+    public void put(CharSequence key) {
+        long h1 = hash(key, SEED_1);
+        long h2 = hash(key, SEED_2) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    public boolean mightContain(CharSequence key) {
+        long h1 = hash(key, SEED_1);
+        long h2 = hash(key, SEED_2) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(CharSequence key, long seed) {
+        long h = seed ^ key.length();
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        // murmur3 finalizer, spreads the FNV-style accumulation over all 64 bits
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
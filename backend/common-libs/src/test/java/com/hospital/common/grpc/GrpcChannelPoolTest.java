@@ -0,0 +1,185 @@
+package com.hospital.common.grpc;
+
+import com.hospital.common.proto.AuthServiceGrpc;
+import com.hospital.common.proto.GetUserRequest;
+import com.hospital.common.proto.UserResponse;
+import com.hospital.common.proto.ValidateTokenRequest;
+import com.hospital.common.proto.ValidateTokenResponse;
+import io.grpc.Channel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrpcChannelPoolTest {
+
+    private static final String AUTH_SERVICE = AuthServiceGrpc.SERVICE_NAME;
+
+    private FakeAuthService authService;
+    private Server server;
+    private GrpcChannelPool pool;
+    private String serverName;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        authService = new FakeAuthService();
+        serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName).addService(authService).build().start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        server.shutdownNow();
+    }
+
+    @Test
+    void unavailable_IsRetriedWithinMaxAttempts() {
+        authService.failuresBeforeSuccess.set(2);
+        pool = inProcessPool().build();
+
+        UserResponse user = AuthServiceGrpc.newBlockingStub(pool.channel("auth-service"))
+                .getUserById(GetUserRequest.newBuilder().setUserId("42").build());
+
+        assertEquals("42", user.getId());
+        assertEquals(3, authService.getUserCalls.get());
+    }
+
+    @Test
+    void slowCall_IsHedged() {
+        pool = inProcessPool()
+                .methodPolicy(AUTH_SERVICE, "ValidateToken", GrpcCallPolicy.builder()
+                        .timeout(Duration.ofSeconds(5))
+                        .maxAttempts(2)
+                        .hedgingDelay(Duration.ofMillis(50))
+                        .build())
+                .build();
+
+        long start = System.nanoTime();
+        ValidateTokenResponse response = AuthServiceGrpc.newBlockingStub(pool.channel("auth-service"))
+                .validateToken(ValidateTokenRequest.newBuilder().setToken("t").build());
+
+        assertTrue(response.getValid());
+        assertEquals(2, authService.validateCalls.get());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void policyTimeout_AppliesAsDeadline() {
+        pool = inProcessPool()
+                .defaultPolicy(GrpcCallPolicy.builder().timeout(Duration.ofMillis(100)).build())
+                .build();
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () ->
+                AuthServiceGrpc.newBlockingStub(pool.channel("auth-service"))
+                        .validateToken(ValidateTokenRequest.newBuilder().setToken("t").build()));
+
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode());
+    }
+
+    @Test
+    void calls_AreTimedPerMethodAndStatus() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool = inProcessPool().interceptor(new GrpcClientMetricsInterceptor(registry)).build();
+        AuthServiceGrpc.AuthServiceBlockingStub stub = AuthServiceGrpc.newBlockingStub(pool.channel("auth-service"));
+
+        stub.getUserById(GetUserRequest.newBuilder().setUserId("1").build());
+        stub.getUserById(GetUserRequest.newBuilder().setUserId("2").build());
+
+        Timer timer = registry.get(GrpcClientMetricsInterceptor.METRIC_NAME)
+                .tag("method", "GetUserById")
+                .tag("status", "OK")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    void channels_AreReusedRoundRobin() {
+        pool = inProcessPool().channelsPerService(2).build();
+
+        Channel first = pool.channel("auth-service");
+        Channel second = pool.channel("auth-service");
+
+        assertNotSame(first, second);
+        assertSame(first, pool.channel("auth-service"));
+    }
+
+    @Test
+    void discoveryTarget_ResolvesRegisteredEndpoints() throws Exception {
+        Server netty = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0))
+                .addService(authService)
+                .build()
+                .start();
+        try {
+            pool = GrpcChannelPool.builder()
+                    .endpointResolver(service -> "auth-service".equals(service)
+                            ? List.of(new InetSocketAddress("127.0.0.1", netty.getPort()))
+                            : List.of(), Duration.ofSeconds(30))
+                    .build();
+
+            UserResponse user = AuthServiceGrpc.newBlockingStub(pool.channel("auth-service"))
+                    .getUserById(GetUserRequest.newBuilder().setUserId("7").build());
+            StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () ->
+                    AuthServiceGrpc.newBlockingStub(pool.channel("billing-service"))
+                            .withDeadlineAfter(1, TimeUnit.SECONDS)
+                            .getUserById(GetUserRequest.newBuilder().setUserId("7").build()));
+
+            assertEquals("7", user.getId());
+            assertEquals(Status.Code.UNAVAILABLE, e.getStatus().getCode());
+        } finally {
+            pool.close();
+            netty.shutdownNow();
+        }
+    }
+
+    private GrpcChannelPool.Builder inProcessPool() {
+        return GrpcChannelPool.builder()
+                .channelBuilder(service -> InProcessChannelBuilder.forName(serverName))
+                .keepAliveTime(null);
+    }
+
+    private static class FakeAuthService extends AuthServiceGrpc.AuthServiceImplBase {
+        final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+        final AtomicInteger getUserCalls = new AtomicInteger();
+        final AtomicInteger validateCalls = new AtomicInteger();
+
+        @Override
+        public void getUserById(GetUserRequest request, StreamObserver<UserResponse> responseObserver) {
+            getUserCalls.incrementAndGet();
+            if (failuresBeforeSuccess.getAndDecrement() > 0) {
+                responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(UserResponse.newBuilder().setId(request.getUserId()).build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> responseObserver) {
+            // The first attempt never answers, only a hedged attempt can succeed
+            if (validateCalls.incrementAndGet() == 1) {
+                return;
+            }
+            responseObserver.onNext(ValidateTokenResponse.newBuilder().setValid(true).build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.hospital.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void put_HasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("revoked-" + i));
+            if (bloomFilter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void of_HoldsOnlyTheGivenKeys() {
+        BloomFilter filter = BloomFilter.of(List.of("kept-1", "kept-2"), 100, 0.001);
+
+        assertTrue(filter.mightContain("kept-1"));
+        assertTrue(filter.mightContain("kept-2"));
+        assertFalse(filter.mightContain("expired"));
+    }
+}
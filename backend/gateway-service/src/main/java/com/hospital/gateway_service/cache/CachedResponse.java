@@ -0,0 +1,30 @@
+package com.hospital.gateway_service.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stored response: status, the headers that describe the body, the body itself and how long it
+ * may be served. {@code etag} is the backend's, or one derived from the body when it sent none.
+ */
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+
+    // Rough bookkeeping cost of an entry beyond its header and body bytes
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /** Approximate bytes held by this entry, which is what the cache size is bounded by. */
+    int weight() {
+        long weight = ENTRY_OVERHEAD + body.length;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+}
@@ -0,0 +1,375 @@
+package com.hospital.gateway_service.cache;
+
+import com.hospital.gateway_service.security.JwtAuthenticationGlobalFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches a route's GET responses in the gateway, e.g. {@code EdgeCache=1m}; the argument is how long
+ * a response is served before the backend is asked again. Only for routes whose responses depend on
+ * the path, query and role alone: entries are keyed by route, path and query, and
+ * {@code X-User-Role} as set by {@link JwtAuthenticationGlobalFilter}, never by the individual user.
+ * <p>
+ * Only 200 responses are stored, not those marked {@code no-store}, {@code no-cache} or
+ * {@code private}, setting a cookie, varying on request headers or larger than
+ * {@code gateway.edge-cache.max-entry-size}; a shorter {@code max-age} from the backend wins. A stored
+ * response carries the backend's {@code ETag} or one derived from the body, so clients revalidate
+ * with {@code If-None-Match} and get a 304 without the body. Concurrent misses wait for one backend
+ * request, and a successful write through the route drops its entries on this gateway instance.
+ * <p>
+ * The filter runs ahead of the route's other filters, so cache hits are not rate limited. Requests are
+ * counted in {@code gateway.cache.requests} by result ({@code hit}, {@code coalesced} or {@code miss}),
+ * body bytes served from the cache in {@code gateway.cache.bytes.saved}.
+ */
+@Component
+public class EdgeCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<EdgeCacheGatewayFilterFactory.Config> {
+
+    public static final String REQUESTS_METRIC = "gateway.cache.requests";
+    public static final String BYTES_SAVED_METRIC = "gateway.cache.bytes.saved";
+    public static final String CACHE_HEADER = "X-Cache";
+
+    // Has to decorate the response before NettyWriteResponseFilter writes the backend's body to it
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    // Set per request by the gateway itself (CORS) or the connection, not part of the stored response
+    private static final Set<String> UNCACHED_HEADERS = Set.of("vary", "date", "connection", "keep-alive",
+            "transfer-encoding", "content-length", CACHE_HEADER.toLowerCase(Locale.ROOT));
+    // Vary values that do not split entries: CORS is answered by the gateway, the role is in the key
+    private static final Set<String> IGNORED_VARY = Set.of("origin", "access-control-request-method",
+            "access-control-request-headers", JwtAuthenticationGlobalFilter.USER_ROLE_HEADER.toLowerCase(Locale.ROOT));
+
+    private final ResponseCache cache;
+    private final long maxEntryBytes;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    public EdgeCacheGatewayFilterFactory(@Value("${gateway.edge-cache.max-size:64MB}") DataSize maxSize,
+                                         @Value("${gateway.edge-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this(new ResponseCache(maxSize.toBytes()), maxEntrySize.toBytes(), meterRegistry);
+    }
+
+    EdgeCacheGatewayFilterFactory(ResponseCache cache, long maxEntryBytes, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(Config.class);
+        this.cache = cache;
+        this.maxEntryBytes = Math.min(maxEntryBytes, Integer.MAX_VALUE - 8);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("gateway.cache.size", cache, ResponseCache::weightedSize)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("gateway.cache.entries", cache, ResponseCache::size)
+                    .register(registry);
+        });
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration ttl = config.getTtl();
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Edge cache needs a positive time to live");
+        }
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, ttl), ORDER);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Duration ttl) {
+        ServerHttpRequest request = exchange.getRequest();
+        String routeId = routeId(exchange);
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.GET) {
+            if (method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).doOnSuccess(done -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    cache.invalidate(routeId);
+                }
+            });
+        }
+
+        ResponseCache.Key key = key(request, routeId);
+        // Before the lookup, so a write landing from here on keeps this fetch's response out of the cache
+        long generation = cache.generation(routeId);
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            return serve(exchange, cached, routeId, "hit");
+        }
+        Mono<CachedResponse> fetching = cache.join(key);
+        if (fetching != null) {
+            return fetching.map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(response -> {
+                        if (response.isPresent()) {
+                            return serve(exchange, response.get(), routeId, "coalesced");
+                        }
+                        // Not cacheable after all; fetch it like any other request
+                        count(routeId, "miss");
+                        return chain.filter(exchange);
+                    });
+        }
+
+        count(routeId, "miss");
+        CachingResponse response = new CachingResponse(exchange.getResponse(), key, generation, ttl);
+        response.getHeaders().set(CACHE_HEADER, "MISS");
+        // The backend must send the whole body to be cached; the client's condition is answered from the cache later.
+        // It is cached unencoded and compressed on the way out for each client that accepts it
+        ServerHttpRequest unconditional = request.mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    headers.remove(HttpHeaders.ACCEPT_ENCODING);
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(unconditional).response(response).build())
+                .doFinally(signal -> response.complete(null));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String routeId, String result) {
+        count(routeId, result);
+        meterRegistry.ifAvailable(registry -> registry.counter(BYTES_SAVED_METRIC, "route", routeId)
+                .increment(cached.body().length));
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        headers.set(CACHE_HEADER, "HIT");
+        if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void count(String routeId, String result) {
+        meterRegistry.ifAvailable(registry -> registry.counter(REQUESTS_METRIC, "route", routeId, "result", result)
+                .increment());
+    }
+
+    private static ResponseCache.Key key(ServerHttpRequest request, String routeId) {
+        String path = request.getPath().value();
+        String query = request.getURI().getRawQuery();
+        return new ResponseCache.Key(routeId, query == null ? path : path + '?' + query,
+                request.getHeaders().getFirst(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER));
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            // Weak comparison, as If-None-Match calls for
+            if (candidate.equals("*") || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * How long a response with these headers may be stored, at most {@code ttl}; {@code null} if it
+     * must not be stored.
+     */
+    private static Duration storableFor(HttpStatusCode status, HttpHeaders headers, Duration ttl) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        for (String vary : headers.getVary()) {
+            if (!IGNORED_VARY.contains(vary.trim().toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String name = directive.trim().toLowerCase(Locale.ROOT);
+                if (name.equals("no-store") || name.equals("no-cache") || name.equals("private")) {
+                    return null;
+                }
+                if (name.startsWith("max-age=")) {
+                    maxAge = seconds(name.substring("max-age=".length()));
+                } else if (name.startsWith("s-maxage=")) {
+                    sharedMaxAge = seconds(name.substring("s-maxage=".length()));
+                }
+            }
+        }
+        // s-maxage is meant for shared caches like this one, so it overrides max-age
+        Long backendSeconds = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        if (backendSeconds == null) {
+            return ttl;
+        }
+        return backendSeconds <= 0 ? null : ttl.compareTo(Duration.ofSeconds(backendSeconds)) <= 0
+                ? ttl : Duration.ofSeconds(backendSeconds);
+    }
+
+    private static Long seconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", "").trim());
+        } catch (NumberFormatException e) {
+            // Malformed: the configured time to live applies
+            return null;
+        }
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    /**
+     * Passes the backend's response through to the client, keeping a copy of the body to store once
+     * it is complete.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ResponseCache.Key key;
+        private final long generation;
+        private final Duration ttl;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        CachingResponse(ServerHttpResponse delegate, ResponseCache.Key key, long generation, Duration ttl) {
+            super(delegate);
+            this.key = key;
+            this.generation = generation;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration storable = storableFor(getStatusCode(), getHeaders(), ttl);
+            long contentLength = getHeaders().getContentLength();
+            if (storable == null || contentLength > maxEntryBytes) {
+                complete(null);
+                return super.writeWith(body);
+            }
+            BodyCopy copy = new BodyCopy(contentLength >= 0 ? (int) contentLength : 1024, (int) maxEntryBytes);
+            Flux<? extends DataBuffer> copied = Flux.from(body)
+                    .doOnNext(copy::append)
+                    .doOnComplete(() -> complete(copy.overflowed() ? null : stored(copy.bytes(), storable)));
+            return super.writeWith(copied);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are not cached
+            complete(null);
+            return super.writeAndFlushWith(body);
+        }
+
+        void complete(CachedResponse response) {
+            if (completed.compareAndSet(false, true)) {
+                cache.complete(key, response, generation);
+            }
+        }
+
+        private CachedResponse stored(byte[] body, Duration storable) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                String lowerCase = name.toLowerCase(Locale.ROOT);
+                if (!UNCACHED_HEADERS.contains(lowerCase) && !lowerCase.startsWith("access-control-")) {
+                    headers.addAll(name, values);
+                }
+            });
+            String etag = headers.getETag();
+            if (etag == null) {
+                // Same form as Spring's ShallowEtagHeaderFilter
+                etag = "\"0" + DigestUtils.md5DigestAsHex(body) + '"';
+                headers.setETag(etag);
+            }
+            return new CachedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body, etag, storable);
+        }
+    }
+
+    /** The body seen so far, given up once it exceeds the largest cacheable size. */
+    private static final class BodyCopy {
+
+        private final int maxBytes;
+        private byte[] bytes;
+        private int size;
+        private boolean overflowed;
+
+        BodyCopy(int expectedBytes, int maxBytes) {
+            this.maxBytes = maxBytes;
+            this.bytes = new byte[Math.min(expectedBytes, maxBytes)];
+        }
+
+        void append(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (overflowed || size + length > maxBytes) {
+                overflowed = true;
+                bytes = null;
+                return;
+            }
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(maxBytes, Math.max(size + length, bytes.length * 2)));
+            }
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), size, length);
+            size += length;
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+
+        byte[] bytes() {
+            return size == bytes.length ? bytes : Arrays.copyOf(bytes, size);
+        }
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofMinutes(1);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Config setTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+    }
+}
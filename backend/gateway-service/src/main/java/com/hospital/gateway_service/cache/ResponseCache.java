@@ -0,0 +1,115 @@
+package com.hospital.gateway_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Responses shared by all routes using {@link EdgeCacheGatewayFilterFactory}, bounded by their total
+ * size in bytes; each entry expires after its own time to live. Caffeine evicts the least frequently
+ * used entries first, so a burst of one-off queries does not push out the listings everyone reads.
+ * <p>
+ * Also tracks the responses being fetched, so concurrent misses for the same key wait for one
+ * backend request instead of each sending their own. Each route has a generation that every
+ * invalidation moves on; a response fetched across an invalidation may predate the write and is not
+ * stored.
+ */
+final class ResponseCache {
+
+    record Key(String routeId, String uri, String role) {
+    }
+
+    private final Cache<Key, CachedResponse> entries;
+    private final ConcurrentMap<Key, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    ResponseCache(long maxBytes) {
+        this(maxBytes, Ticker.systemTicker());
+    }
+
+    ResponseCache(long maxBytes, Ticker ticker) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, CachedResponse response) -> response.weight())
+                .expireAfter(Expiry.creating((Key key, CachedResponse response) -> response.ttl()))
+                .ticker(ticker)
+                .build();
+    }
+
+    CachedResponse get(Key key) {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Registers the caller as the one fetching {@code key} and returns {@code null}, unless another
+     * request is already fetching it: then returns that request's response, empty if it turns out not
+     * to be cacheable. Whoever gets {@code null} must call {@link #complete} exactly once.
+     */
+    Mono<CachedResponse> join(Key key) {
+        Sinks.One<CachedResponse> fetch = Sinks.one();
+        Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, fetch);
+        return existing != null ? existing.asMono() : null;
+    }
+
+    /** The route's current generation, to be taken before fetching and passed to {@link #complete}. */
+    long generation(String routeId) {
+        return generationOf(routeId).get();
+    }
+
+    /**
+     * Stores the fetched response, or just releases the waiting requests if it is {@code null} or the
+     * route was invalidated since {@code generation}.
+     */
+    void complete(Key key, CachedResponse response, long generation) {
+        AtomicLong current = generationOf(key.routeId());
+        if (response != null && current.get() != generation) {
+            response = null;
+        }
+        if (response != null) {
+            entries.put(key, response);
+            // An invalidation between the check and the put may have missed the entry
+            if (current.get() != generation) {
+                entries.asMap().remove(key, response);
+                response = null;
+            }
+        }
+        // Stored first, so a request arriving now finds either the entry or the fetch
+        Sinks.One<CachedResponse> fetch = inFlight.remove(key);
+        if (fetch != null) {
+            if (response != null) {
+                fetch.tryEmitValue(response);
+            } else {
+                fetch.tryEmitEmpty();
+            }
+        }
+    }
+
+    /** Drops every response of a route; writes are rare enough for the scan not to matter. */
+    void invalidate(String routeId) {
+        // Moved on first, so a fetch completing during the scan sees it and does not store
+        generationOf(routeId).incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+    }
+
+    private AtomicLong generationOf(String routeId) {
+        AtomicLong generation = generations.get(routeId);
+        return generation != null ? generation : generations.computeIfAbsent(routeId, id -> new AtomicLong());
+    }
+
+    long weightedSize() {
+        return entries.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    long size() {
+        return entries.estimatedSize();
+    }
+}
@@ -0,0 +1,39 @@
+package com.hospital.gateway_service.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.function.BiPredicate;
+
+/**
+ * Response compression is {@code server.compression.*}: Reactor Netty encodes bodies chunk by chunk on their
+ * way out, gzip or brotli as the client accepts. Reactor Netty leaves out {@code Vary: Accept-Encoding}, which
+ * caches between the gateway and the client need to keep encoded and plain copies apart, so it is added here
+ * to every response the gateway would compress, whether or not this client accepted an encoding.
+ */
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    public NettyServerCustomizer varyOnAcceptEncoding() {
+        return server -> {
+            BiPredicate<HttpServerRequest, HttpServerResponse> compressible = server.configuration().compressPredicate();
+            if (compressible == null) {
+                return server;
+            }
+            return server.compress((request, response) -> {
+                if (!compressible.test(request, response)) {
+                    return false;
+                }
+                if (!response.responseHeaders().containsValue(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING, true)) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return true;
+            });
+        };
+    }
+}
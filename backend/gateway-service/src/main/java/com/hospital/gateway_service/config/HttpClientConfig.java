@@ -0,0 +1,52 @@
+package com.hospital.gateway_service.config;
+
+import com.hospital.gateway_service.httpclient.RouteHttpClientFactory;
+import com.hospital.gateway_service.httpclient.RouteHttpClientRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * HTTP client the gateway proxies with: pool limits from {@code spring.cloud.gateway.server.webflux.httpclient.*},
+ * plus per-route pools and protocols from route metadata.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    // Replaces Spring Cloud Gateway's gatewayHttpClientFactory, which backs off when one exists
+    @Bean
+    public RouteHttpClientFactory gatewayHttpClientFactory(
+            HttpClientProperties properties,
+            ServerProperties serverProperties,
+            List<HttpClientCustomizer> customizers,
+            HttpClientSslConfigurer sslConfigurer,
+            @Value("${gateway.httpclient.pending-acquire-max-count:1000}") int pendingAcquireMaxCount) {
+        return new RouteHttpClientFactory(properties, serverProperties, sslConfigurer, customizers, pendingAcquireMaxCount);
+    }
+
+    @Bean
+    public RouteHttpClientRoutingFilter routeHttpClientRoutingFilter(
+            HttpClient httpClient,
+            ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+            HttpClientProperties properties,
+            RouteHttpClientFactory gatewayHttpClientFactory) {
+        return new RouteHttpClientRoutingFilter(httpClient, headersFilters, properties, gatewayHttpClientFactory);
+    }
+
+    // Spring Cloud Gateway only registers it alongside its own routing filter, disabled in application.properties
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties properties) {
+        return new NettyWriteResponseFilter(properties.getStreamingMediaTypes());
+    }
+}
@@ -0,0 +1,14 @@
+package com.hospital.gateway_service.config;
+
+import com.hospital.gateway_service.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Routes every {@code lb://} service, and load-balanced {@code WebClient} calls, through the
+ * latency-aware load balancer instead of round robin.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,76 @@
+package com.hospital.gateway_service.httpclient;
+
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Connection pool and protocol overrides a route declares in its metadata, for example
+ * {@code spring.cloud.gateway.routes[0].metadata.protocols=h2c}. Unset values fall back to the gateway-wide
+ * {@code spring.cloud.gateway.server.webflux.httpclient.pool.*} settings.
+ */
+record RouteClientSettings(Integer maxConnections, Integer pendingAcquireMaxCount, Duration maxIdleTime,
+                           HttpProtocol[] protocols) {
+
+    static final String MAX_CONNECTIONS = "max-connections";
+    static final String PENDING_ACQUIRE_MAX_COUNT = "pending-acquire-max-count";
+    static final String MAX_IDLE_TIME = "max-idle-time";
+    static final String PROTOCOLS = "protocols";
+
+    static final RouteClientSettings NONE = new RouteClientSettings(null, null, null, null);
+
+    /**
+     * Settings from a route's metadata, or {@link #NONE} if it declares none, so the route shares the
+     * gateway's default client.
+     */
+    static RouteClientSettings from(Map<String, Object> metadata) {
+        Object maxConnections = metadata.get(MAX_CONNECTIONS);
+        Object pendingAcquireMaxCount = metadata.get(PENDING_ACQUIRE_MAX_COUNT);
+        Object maxIdleTime = metadata.get(MAX_IDLE_TIME);
+        Object protocols = metadata.get(PROTOCOLS);
+        if (maxConnections == null && pendingAcquireMaxCount == null && maxIdleTime == null && protocols == null) {
+            return NONE;
+        }
+        return new RouteClientSettings(
+                maxConnections == null ? null : Integer.valueOf(maxConnections.toString().trim()),
+                pendingAcquireMaxCount == null ? null : Integer.valueOf(pendingAcquireMaxCount.toString().trim()),
+                maxIdleTime == null ? null : Duration.ofMillis(Long.parseLong(maxIdleTime.toString().trim())),
+                protocols == null ? null : parseProtocols(protocols.toString()));
+    }
+
+    private static HttpProtocol[] parseProtocols(String protocols) {
+        return Arrays.stream(protocols.split(","))
+                .map(protocol -> switch (protocol.trim().toLowerCase(Locale.ROOT)) {
+                    case "h2c" -> HttpProtocol.H2C;
+                    case "h2" -> HttpProtocol.H2;
+                    case "http11", "http/1.1" -> HttpProtocol.HTTP11;
+                    default -> throw new IllegalArgumentException("Unknown route protocol: " + protocol);
+                })
+                .toArray(HttpProtocol[]::new);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RouteClientSettings that
+                && Objects.equals(maxConnections, that.maxConnections)
+                && Objects.equals(pendingAcquireMaxCount, that.pendingAcquireMaxCount)
+                && Objects.equals(maxIdleTime, that.maxIdleTime)
+                && Arrays.equals(protocols, that.protocols);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnections, pendingAcquireMaxCount, maxIdleTime, Arrays.hashCode(protocols));
+    }
+
+    @Override
+    public String toString() {
+        return "RouteClientSettings[maxConnections=" + maxConnections + ", pendingAcquireMaxCount="
+                + pendingAcquireMaxCount + ", maxIdleTime=" + maxIdleTime + ", protocols="
+                + Arrays.toString(protocols) + "]";
+    }
+}
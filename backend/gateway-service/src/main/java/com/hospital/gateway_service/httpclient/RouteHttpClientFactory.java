@@ -0,0 +1,88 @@
+package com.hospital.gateway_service.httpclient;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The gateway's {@link HttpClientFactory}, with a bounded queue for requests waiting on a pooled
+ * connection; Spring Cloud Gateway leaves it unbounded, so a slow backend collects waiting requests
+ * until each times out. Also builds the clients for routes with their own pool or protocol, configured
+ * like the default one apart from the {@link RouteClientSettings} overrides.
+ */
+public class RouteHttpClientFactory extends HttpClientFactory {
+
+    private final int pendingAcquireMaxCount;
+
+    public RouteHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                  HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                  int pendingAcquireMaxCount) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider(properties.getPool().getName(), RouteClientSettings.NONE);
+    }
+
+    HttpClient createForRoute(String routeId, RouteClientSettings settings) {
+        HttpClient httpClient = HttpClient.create(connectionProvider("route-" + routeId, settings))
+                .httpResponseDecoder(this::httpResponseDecoder);
+        if (properties.getConnectTimeout() != null) {
+            httpClient = httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.getConnectTimeout());
+        }
+        httpClient = configureSsl(configureProxy(httpClient))
+                .wiretap(properties.isWiretap())
+                .compress(properties.isCompression());
+        for (HttpClientCustomizer customizer : customizers) {
+            httpClient = customizer.customize(httpClient);
+        }
+        return settings.protocols() != null ? httpClient.protocol(settings.protocols()) : httpClient;
+    }
+
+    /**
+     * Same pool as Spring Cloud Gateway builds from {@code httpclient.pool.*}, with the pending acquire
+     * limit and any route overrides applied. Limits apply per backend address.
+     */
+    ConnectionProvider connectionProvider(String name, RouteClientSettings settings) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return ConnectionProvider.newConnection();
+        }
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(name);
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.FIXED || settings.maxConnections() != null) {
+            builder.maxConnections(settings.maxConnections() != null ? settings.maxConnections() : pool.getMaxConnections())
+                    .pendingAcquireMaxCount(settings.pendingAcquireMaxCount() != null
+                            ? settings.pendingAcquireMaxCount() : pendingAcquireMaxCount)
+                    .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        } else {
+            builder.maxConnections(Integer.MAX_VALUE)
+                    .pendingAcquireTimeout(Duration.ZERO)
+                    .pendingAcquireMaxCount(-1);
+        }
+        Duration maxIdleTime = settings.maxIdleTime() != null ? settings.maxIdleTime() : pool.getMaxIdleTime();
+        if (maxIdleTime != null) {
+            builder.maxIdleTime(maxIdleTime);
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        builder.evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetrics());
+        if (pool.getLeasingStrategy() == HttpClientProperties.Pool.LeasingStrategy.FIFO) {
+            builder.fifo();
+        } else {
+            builder.lifo();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.hospital.gateway_service.httpclient;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gateway routing filter that sends a route through its own connection pool and protocol when its
+ * metadata asks for one (see {@link RouteClientSettings}), and through the shared client otherwise.
+ * Replaces the stock {@link NettyRoutingFilter}, which is disabled in application.properties.
+ * <p>
+ * The client for a route is resolved once per route instance and looked up without locking after
+ * that; a route refresh re-reads the metadata, and the route's pool is replaced, the old one closed,
+ * only if the settings changed.
+ */
+public class RouteHttpClientRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteHttpClientRoutingFilter.class);
+
+    private final RouteHttpClientFactory httpClientFactory;
+    private final ConcurrentMap<String, RouteClient> routeClients = new ConcurrentHashMap<>();
+
+    public RouteHttpClientRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                        HttpClientProperties properties, RouteHttpClientFactory httpClientFactory) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.httpClientFactory = httpClientFactory;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        // Route instances are only replaced by a refresh, so an entry built for this one is current
+        RouteClient cached = routeClients.get(route.getId());
+        if (cached != null && cached.route() == route) {
+            return cached.httpClient();
+        }
+        return routeClients.compute(route.getId(), (id, existing) -> {
+            if (existing != null && existing.route() == route) {
+                return existing;
+            }
+            return rebuild(route, exchange, existing);
+        }).httpClient();
+    }
+
+    private RouteClient rebuild(Route route, ServerWebExchange exchange, RouteClient existing) {
+        RouteClientSettings settings = RouteClientSettings.from(route.getMetadata());
+        if (existing != null && existing.pooled() != null && !existing.settings().equals(settings)) {
+            existing.dispose();
+        }
+        if (settings == RouteClientSettings.NONE) {
+            return new RouteClient(route, settings, null, super.getHttpClient(route, exchange));
+        }
+        HttpClient pooled;
+        if (existing != null && existing.pooled() != null && existing.settings().equals(settings)) {
+            pooled = existing.pooled();
+        } else {
+            log.info("Route {} uses its own HTTP client: {}", route.getId(), settings);
+            pooled = httpClientFactory.createForRoute(route.getId(), settings);
+        }
+
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        HttpClient httpClient = connectTimeout == null ? pooled
+                : pooled.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.valueOf(connectTimeout.toString().trim()));
+        return new RouteClient(route, settings, pooled, httpClient);
+    }
+
+    @Override
+    public void destroy() {
+        routeClients.values().forEach(RouteClient::dispose);
+        routeClients.clear();
+    }
+
+    /**
+     * The client for one version of a route: {@code pooled} is the route's own client, null when it
+     * uses the shared one, and {@code httpClient} is what requests go through, connect timeout applied.
+     */
+    private record RouteClient(Route route, RouteClientSettings settings, HttpClient pooled, HttpClient httpClient) {
+
+        // Idle connections close now, ones still serving a request when they are released
+        void dispose() {
+            if (pooled != null) {
+                pooled.configuration().connectionProvider().disposeLater().subscribe();
+            }
+        }
+    }
+}
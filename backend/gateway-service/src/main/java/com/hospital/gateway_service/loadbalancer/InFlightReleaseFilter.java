@@ -0,0 +1,34 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Releases the in-flight slot {@link LatencyAwareLoadBalancer} took for an exchange when it ends
+ * without completing, e.g. the client disconnected or a time limiter cancelled it. The gateway only
+ * reports success and error to the load balancer, so otherwise the instance would look busy for good.
+ * Runs just outside the load balancer filter, so a completed exchange has already released its slot.
+ */
+@Component
+public class InFlightReleaseFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signal -> {
+            InFlightRequest inFlight = exchange.getAttribute(LatencyAwareLoadBalancer.IN_FLIGHT_ATTR);
+            if (inFlight != null) {
+                inFlight.release();
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One request counted as in flight on an instance. Released exactly once, by whichever comes first:
+ * its completion or the exchange being cancelled, which the load balancer lifecycle is never told about.
+ */
+final class InFlightRequest {
+
+    private final InstanceStats instance;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    InFlightRequest(InstanceStats instance) {
+        this.instance = instance;
+        instance.started();
+    }
+
+    /**
+     * Returns whether this call released the request, false if it had already been released.
+     */
+    boolean release() {
+        if (!released.compareAndSet(false, true)) {
+            return false;
+        }
+        instance.finished();
+        return true;
+    }
+}
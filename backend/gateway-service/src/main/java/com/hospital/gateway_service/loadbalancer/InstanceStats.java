@@ -0,0 +1,92 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * What the gateway has observed of one service instance: a peak-sensitive, exponentially decayed
+ * average of response times, the requests currently in flight and its recent failures.
+ */
+final class InstanceStats {
+
+    // Cost of an instance with requests in flight but no response yet, so a new instance is probed
+    // one request at a time instead of attracting everything until its first response arrives
+    static final double UNMEASURED_BUSY_COST = Double.MAX_VALUE / 2;
+
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final double decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private double averageNanos;
+    private long observedAt;
+    private int consecutiveErrors;
+    private int ejections;
+    private long ejectedUntil;
+
+    InstanceStats(long decayNanos, long now) {
+        this.decayNanos = decayNanos;
+        this.observedAt = now;
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Records a response time. One slower than the average replaces it outright, faster ones pull it
+     * down gradually, so a slow instance is avoided at once and trusted again only slowly.
+     */
+    synchronized void observe(long latencyNanos, long now) {
+        double weight = decay(now);
+        averageNanos = latencyNanos > averageNanos
+                ? latencyNanos
+                : averageNanos * weight + latencyNanos * (1 - weight);
+        observedAt = Math.max(observedAt, now);
+    }
+
+    synchronized void succeeded() {
+        consecutiveErrors = 0;
+        ejections = 0;
+    }
+
+    /**
+     * Counts a failure and ejects the instance for {@code baseEjectionNanos} times the number of times
+     * in a row it has been ejected, once {@code threshold} failures happen back to back. Returns whether
+     * this failure ejected it.
+     */
+    synchronized boolean failed(int threshold, long baseEjectionNanos, long now) {
+        if (++consecutiveErrors < threshold) {
+            return false;
+        }
+        consecutiveErrors = 0;
+        ejections = Math.min(ejections + 1, MAX_EJECTION_MULTIPLIER);
+        ejectedUntil = now + baseEjectionNanos * ejections;
+        return true;
+    }
+
+    synchronized boolean isEjected(long now) {
+        return ejectedUntil - now > 0;
+    }
+
+    /**
+     * Expected cost of sending one more request here: the average latency, decayed towards zero while
+     * the instance sits idle so it is eventually tried again, times the requests it would be queued behind.
+     */
+    synchronized double cost(long now) {
+        double average = averageNanos * decay(now);
+        int pending = inFlight.get();
+        if (average == 0 && pending > 0) {
+            return UNMEASURED_BUSY_COST;
+        }
+        return average * (pending + 1);
+    }
+
+    private double decay(long now) {
+        return Math.exp(-Math.max(0, now - observedAt) / decayNanos);
+    }
+}
@@ -0,0 +1,232 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the instance expected to answer soonest. Two instances are drawn at random and the one with
+ * the lower cost wins ("power of two choices"): cost is a peak-sensitive moving average of its latency,
+ * decaying over {@code decayTime}, times one plus its requests in flight. Comparing two instead of all
+ * of them keeps every gateway from piling onto the same momentarily fastest instance.
+ * <p>
+ * An instance failing {@code consecutiveErrors} times in a row (connection errors or 5xx) is left out
+ * for {@code ejectionTime}, longer each time it is ejected again, but never more than
+ * {@code maxEjectionPercent} of the instances at once.
+ * <p>
+ * Also the {@link LoadBalancerLifecycle} the gateway and load-balanced {@code WebClient}s report each
+ * request to; that is where latencies and failures are observed. A gateway exchange that is cancelled
+ * instead is released by {@link InFlightReleaseFilter}.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /**
+     * Exchange attribute holding the {@link InFlightRequest} of the request sent to the chosen instance.
+     */
+    static final String IN_FLIGHT_ATTR = LatencyAwareLoadBalancer.class.getName() + ".inFlight";
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final long decayNanos;
+    private final int consecutiveErrors;
+    private final long ejectionNanos;
+    private final int maxEjectionPercent;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, Duration decayTime, int consecutiveErrors,
+                                    Duration ejectionTime, int maxEjectionPercent) {
+        this(serviceInstanceListSupplierProvider, serviceId, decayTime, consecutiveErrors, ejectionTime,
+                maxEjectionPercent, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                             String serviceId, Duration decayTime, int consecutiveErrors,
+                             Duration ejectionTime, int maxEjectionPercent, LongSupplier clock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = Math.max(1, decayTime.toNanos());
+        this.consecutiveErrors = Math.max(1, consecutiveErrors);
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.maxEjectionPercent = Math.min(100, Math.max(0, maxEjectionPercent));
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = clock.getAsLong();
+        if (stats.size() > instances.size()) {
+            forgetRemoved(instances);
+        }
+        List<ServiceInstance> candidates = healthy(instances, now);
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(statsOf(a, now).cost(now) <= statsOf(b, now).cost(now) ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(now);
+        }
+        InFlightRequest inFlight = new InFlightRequest(statsOf(lbResponse.getServer(), now));
+        Map<String, Object> attributes = attributes(request);
+        if (attributes != null) {
+            attributes.put(IN_FLIGHT_ATTR, inFlight);
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        Map<String, Object> attributes = attributes(request);
+        InFlightRequest inFlight = attributes != null && attributes.get(IN_FLIGHT_ATTR) instanceof InFlightRequest held
+                ? held : null;
+        if (inFlight != null && !inFlight.release()) {
+            // Already released when the exchange was cancelled
+            return;
+        }
+        InstanceStats instance = stats.get(key(lbResponse.getServer()));
+        if (instance == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (inFlight == null) {
+            instance.finished();
+        }
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() != 0) {
+            instance.observe(now - context.getRequestStartTime(), now);
+        }
+
+        if (isFailure(completionContext)) {
+            if (instance.failed(consecutiveErrors, ejectionNanos, now)) {
+                log.warn("Ejecting {} instance {} after {} consecutive failures", serviceId,
+                        key(lbResponse.getServer()), consecutiveErrors);
+            }
+        } else {
+            instance.succeeded();
+        }
+    }
+
+    // Attributes of the exchange or client request, shared by reference with the gateway exchange
+    private static Map<String, Object> attributes(Request<?> request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null) {
+            return context.getClientRequest().getAttributes();
+        }
+        return null;
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError();
+    }
+
+    /**
+     * Instances that are not ejected, or all of them when ejecting would leave out more than the
+     * allowed share: better a struggling instance than refusing requests outright.
+     */
+    private List<ServiceInstance> healthy(List<ServiceInstance> instances, long now) {
+        List<ServiceInstance> healthy = null;
+        for (int i = 0; i < instances.size(); i++) {
+            InstanceStats instance = stats.get(key(instances.get(i)));
+            boolean ejected = instance != null && instance.isEjected(now);
+            if (ejected && healthy == null) {
+                healthy = new ArrayList<>(instances.subList(0, i));
+            } else if (!ejected && healthy != null) {
+                healthy.add(instances.get(i));
+            }
+        }
+        if (healthy == null) {
+            return instances;
+        }
+        int maxEjected = instances.size() * maxEjectionPercent / 100;
+        return healthy.isEmpty() || instances.size() - healthy.size() > maxEjected ? instances : healthy;
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance, long now) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(decayNanos, now));
+    }
+
+    private void forgetRemoved(List<ServiceInstance> instances) {
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            current.add(key(instance));
+        }
+        // Requests still in flight release the stats they hold, so nothing waits on a removed instance
+        stats.keySet().retainAll(current);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,30 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer client configuration, instantiated once per service in its own child context. Not a
+ * {@code @Configuration}, so component scanning does not pick it up in the main context. Settings are
+ * read from the environment directly: child contexts have no Boot conversion service for {@code @Value}
+ * durations such as {@code 10s}.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    // Declared as the concrete type so the gateway also finds it as that service's LoadBalancerLifecycle
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class),
+                name,
+                DurationStyle.detectAndParse(environment.getProperty("gateway.load-balancer.decay-time", "2s")),
+                environment.getProperty("gateway.load-balancer.consecutive-errors", Integer.class, 5),
+                DurationStyle.detectAndParse(environment.getProperty("gateway.load-balancer.ejection-time", "30s")),
+                environment.getProperty("gateway.load-balancer.max-ejection-percent", Integer.class, 50));
+    }
+}
@@ -0,0 +1,144 @@
+package com.hospital.gateway_service.ratelimit;
+
+import com.hospital.gateway_service.security.GatewayPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits a route in memory, without Redis, e.g. {@code LocalRateLimiter=ip, 100, 1m} or
+ * {@code LocalRateLimiter=user, 1000, 1m, 200}. Arguments are the key, the requests allowed per period,
+ * the period and an optional burst (defaults to the limit).
+ * <p>
+ * {@code ip} keys on the client address, {@code user} on the user id verified by
+ * {@link com.hospital.gateway_service.security.JwtAuthenticationGlobalFilter} and falls back to the
+ * address for anonymous requests. Limits are per gateway instance. Rejected requests get 429 with
+ * {@code Retry-After} and are counted in {@code gateway.requests.rate.limited}.
+ */
+@Component
+public class LocalRateLimiterGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimiterGatewayFilterFactory.Config> {
+
+    public static final String REJECTED_METRIC = "gateway.requests.rate.limited";
+
+    private final long maxKeys;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public LocalRateLimiterGatewayFilterFactory(@Value("${gateway.rate-limit.max-keys:100000}") long maxKeys,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        super(Config.class);
+        this.maxKeys = maxKeys;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("key", "limit", "period", "burst");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(config.getLimit(), config.getPeriod(),
+                config.getBurst() > 0 ? config.getBurst() : config.getLimit(), maxKeys);
+        KeyType keyType = config.getKey();
+        return (exchange, chain) -> {
+            String key = key(exchange, keyType);
+            if (key == null) {
+                // No address to attribute the request to; only happens with unusual transports
+                return chain.filter(exchange);
+            }
+            long waitNanos = limiter.tryAcquire(key);
+            if (waitNanos == 0) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            meterRegistry.ifAvailable(registry -> registry.counter(REJECTED_METRIC,
+                    "route", routeId(exchange), "key", keyType.name().toLowerCase()).increment());
+            return response.setComplete();
+        };
+    }
+
+    private static String key(ServerWebExchange exchange, KeyType keyType) {
+        if (keyType == KeyType.USER) {
+            GatewayPrincipal principal = exchange.getAttribute(GatewayPrincipal.ATTRIBUTE);
+            if (principal != null) {
+                return principal.userId() != null ? principal.userId() : principal.email();
+            }
+        }
+        // Honors X-Forwarded-For only when server.forward-headers-strategy is set
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        return remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    public enum KeyType {
+        IP, USER
+    }
+
+    public static class Config {
+        private KeyType key = KeyType.IP;
+        private int limit;
+        private Duration period = Duration.ofMinutes(1);
+        private int burst;
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public Config setKey(KeyType key) {
+            this.key = key;
+            return this;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public Config setLimit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public Config setPeriod(Duration period) {
+            this.period = period;
+            return this;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public Config setBurst(int burst) {
+            this.burst = burst;
+            return this;
+        }
+    }
+}
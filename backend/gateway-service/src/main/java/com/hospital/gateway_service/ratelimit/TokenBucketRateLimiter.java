@@ -0,0 +1,71 @@
+package com.hospital.gateway_service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets allowing {@code limit} requests per {@code period} with bursts of up to
+ * {@code burst} requests, for a single gateway instance.
+ * <p>
+ * Each bucket is the generic cell rate algorithm form of a token bucket: one timestamp of when the
+ * bucket would be full again, advanced by one emission interval per request with a compare-and-set.
+ * No refill task, no lock. Forgetting a bucket only refills it, so the map is just capped at
+ * {@code maxKeys}; Caffeine's frequency-based eviction keeps the busy clients, which are the ones
+ * being limited. No time-based expiry, which would read the clock again on every lookup.
+ */
+final class TokenBucketRateLimiter {
+
+    private static final Function<String, AtomicLong> NEW_BUCKET = key -> new AtomicLong(Long.MIN_VALUE);
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBucketRateLimiter(int limit, Duration period, int burst, long maxKeys) {
+        this(limit, period, burst, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int limit, Duration period, int burst, long maxKeys, LongSupplier clock) {
+        if (limit < 1 || burst < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive limit, burst and period");
+        }
+        this.emissionIntervalNanos = Math.max(1, period.toNanos() / limit);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns 0 if the request may proceed, otherwise the
+     * nanoseconds until a token is available; a rejected request takes nothing from the bucket.
+     */
+    long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, NEW_BUCKET);
+        long now = clock.getAsLong();
+        while (true) {
+            long fullAt = bucket.get();
+            // Time at which the bucket is full again, as if this request were admitted
+            long next = (fullAt == Long.MIN_VALUE || fullAt - now < 0 ? now : fullAt) + emissionIntervalNanos;
+            long wait = next - now - emissionIntervalNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hospital.gateway_service.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers for a route whose {@code CircuitBreaker} filter rejected or gave up on a request, with the
+ * same {@code error}/{@code message} body the services use, plus the route. The circuit being open and
+ * the route's bulkhead being full are 503 with {@code Retry-After}; the route's time limit running out
+ * is 504; any other failure reaching the backend is 503.
+ */
+@RestController
+public class FallbackController {
+
+    public static final String PATH = "/fallback";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public FallbackController(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @RequestMapping(PATH)
+    public ResponseEntity<Map<String, String>> fallback(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        Throwable failure = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+
+        if (failure instanceof TimeoutException) {
+            return error(HttpStatus.GATEWAY_TIMEOUT, routeId, routeId + " did not respond in time", null);
+        }
+        if (failure instanceof CallNotPermittedException rejected) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, routeId, routeId + " is failing, requests are paused",
+                    openWait(rejected.getCausingCircuitBreakerName()));
+        }
+        if (failure instanceof BulkheadFullException) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, routeId, routeId + " is busy, please retry", Duration.ofSeconds(1));
+        }
+        return error(HttpStatus.SERVICE_UNAVAILABLE, routeId, routeId + " is unavailable", null);
+    }
+
+    private Duration openWait(String circuitBreaker) {
+        return circuitBreakerRegistry.find(circuitBreaker)
+                .map(breaker -> Duration.ofMillis(breaker.getCircuitBreakerConfig()
+                        .getWaitIntervalFunctionInOpenState().apply(1)))
+                .orElse(null);
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String routeId, String message,
+                                                             Duration retryAfter) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("route", routeId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (retryAfter != null) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+        }
+        return response.body(body);
+    }
+}
@@ -0,0 +1,10 @@
+package com.hospital.gateway_service.security;
+
+/**
+ * Identity established from a verified access token. Stored on the exchange under {@link #ATTRIBUTE}
+ * so later gateway filters can use it without parsing the token again.
+ */
+public record GatewayPrincipal(String userId, String email, String role) {
+
+    public static final String ATTRIBUTE = GatewayPrincipal.class.getName();
+}
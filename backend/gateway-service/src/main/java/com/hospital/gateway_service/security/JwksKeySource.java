@@ -0,0 +1,193 @@
+package com.hospital.gateway_service.security;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of auth-service's public signing keys, keyed by {@code kid}. Refreshed in the
+ * background so token verification never waits on the network; a token with an unknown key id
+ * triggers at most one early refresh per {@code min-refresh-interval}.
+ * <p>
+ * The host of {@code jwks-uri} is looked up as a service id and every instance is asked for its key
+ * set, so a key that only some instances publish yet, as during a rotation, is trusted as soon as any
+ * of them signs with it. An instance that cannot be reached keeps the keys it published last; one that
+ * left the registry loses them. A {@code jwks-uri} with no registered instances is fetched as it is.
+ */
+@Component
+public class JwksKeySource {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySource.class);
+    private static final Pattern EMPTY_SET = Pattern.compile("\\s*\\{\\s*\"keys\"\\s*:\\s*\\[\\s*]\\s*}\\s*");
+
+    private final WebClient webClient;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final String jwksUri;
+    private final Duration refreshInterval;
+    private final long minRefreshNanos;
+    private final AtomicReference<Mono<Void>> inFlight = new AtomicReference<>();
+
+    private final Map<String, Map<String, PublicKey>> keysBySource = new ConcurrentHashMap<>();
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefreshNanos;
+    private Disposable schedule;
+
+    @Autowired
+    public JwksKeySource(ReactiveDiscoveryClient discoveryClient,
+                         @Value("${gateway.jwt.jwks-uri:}") String jwksUri,
+                         @Value("${gateway.jwt.jwks-refresh-interval:5m}") Duration refreshInterval,
+                         @Value("${gateway.jwt.jwks-min-refresh-interval:10s}") Duration minRefreshInterval) {
+        // Not load balanced: each instance is addressed directly
+        this(WebClient.builder(), discoveryClient, jwksUri, refreshInterval, minRefreshInterval);
+    }
+
+    JwksKeySource(WebClient.Builder webClientBuilder, ReactiveDiscoveryClient discoveryClient, String jwksUri,
+                  Duration refreshInterval, Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.discoveryClient = discoveryClient;
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshNanos = minRefreshInterval.toNanos();
+        this.lastRefreshNanos = System.nanoTime() - minRefreshNanos;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        schedule = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(e -> {
+                    log.warn("Cannot refresh JWKS from {}: {}", jwksUri, e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !jwksUri.isBlank();
+    }
+
+    public Key key(String keyId) {
+        return keys.get(keyId);
+    }
+
+    /**
+     * Fetches the key set now unless it was fetched within {@code min-refresh-interval}, which keeps
+     * tokens with made-up key ids from turning into a flood of requests to auth-service.
+     */
+    public Mono<Void> refreshIfStale() {
+        long now = System.nanoTime();
+        if (!isEnabled() || now - lastRefreshNanos < minRefreshNanos) {
+            return Mono.empty();
+        }
+        // Counts failed attempts too, so an unreachable auth-service is not hammered
+        lastRefreshNanos = now;
+        return refresh();
+    }
+
+    /**
+     * Fetches the key set. Concurrent callers share one request.
+     */
+    Mono<Void> refresh() {
+        return inFlight.updateAndGet(current -> current != null ? current : fetch());
+    }
+
+    private Mono<Void> fetch() {
+        return sources()
+                .flatMap(sources -> Flux.fromIterable(sources)
+                        .flatMap(source -> webClient.get()
+                                .uri(source)
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .doOnNext(json -> update(source, json))
+                                .thenReturn(true)
+                                .onErrorResume(e -> {
+                                    log.warn("Cannot fetch JWKS from {}: {}", source, e.getMessage());
+                                    return Mono.just(false);
+                                }))
+                        .filter(Boolean::booleanValue)
+                        .count()
+                        // With nothing fetched, the registry may just be lagging: keep every key
+                        .doOnNext(fetched -> {
+                            if (fetched > 0 && keysBySource.keySet().retainAll(sources)) {
+                                publish();
+                            }
+                        }))
+                .then()
+                .doFinally(signal -> inFlight.set(null))
+                .cache();
+    }
+
+    private Mono<List<String>> sources() {
+        URI uri = URI.create(jwksUri);
+        if (uri.getHost() == null) {
+            return Mono.just(List.of(jwksUri));
+        }
+        return discoveryClient.getInstances(uri.getHost())
+                .map(instance -> instance.getUri().resolve(uri.getRawPath()).toString())
+                .collectList()
+                .map(instances -> instances.isEmpty() ? List.of(jwksUri) : instances);
+    }
+
+    void update(String json) {
+        update(jwksUri, json);
+    }
+
+    /**
+     * Replaces the keys published by {@code source} and trusts the union of every source's keys.
+     */
+    void update(String source, String json) {
+        Map<String, PublicKey> updated = new HashMap<>();
+        // An HS256 auth-service publishes an empty set, which the JWKS parser rejects
+        if (!EMPTY_SET.matcher(json).matches()) {
+            JwkSet set = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+            for (Jwk<?> jwk : set.getKeys()) {
+                if (jwk.getId() != null && jwk.toKey() instanceof PublicKey publicKey) {
+                    updated.put(jwk.getId(), publicKey);
+                }
+            }
+        }
+        keysBySource.put(source, Map.copyOf(updated));
+        publish();
+        lastRefreshNanos = System.nanoTime();
+        log.debug("Loaded {} signing keys from {}", updated.size(), source);
+    }
+
+    private synchronized void publish() {
+        Map<String, PublicKey> merged = new HashMap<>();
+        keysBySource.values().forEach(merged::putAll);
+        keys = Map.copyOf(merged);
+    }
+}
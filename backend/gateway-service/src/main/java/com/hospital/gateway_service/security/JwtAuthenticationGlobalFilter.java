@@ -0,0 +1,243 @@
+package com.hospital.gateway_service.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Verifies the bearer token once at the edge and forwards the caller's identity downstream as
+ * {@code X-User-*} headers. Client-supplied copies of those headers are always dropped, so
+ * downstream services can trust them.
+ * <p>
+ * Asymmetric tokens are checked against the cached JWKS from {@link JwksKeySource}. HMAC tokens are
+ * checked against {@code gateway.jwt.secret} only when one is configured, and only until
+ * {@code gateway.jwt.legacy-hmac-until}. Either way verification is CPU-only and runs on the event
+ * loop; only a token with an unknown key id waits for a key refresh. Tokens whose id auth-service
+ * revoked are rejected from the local copy in {@link RevokedTokens}.
+ */
+@Component
+public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+
+    /** Runs before routing and before any route filter can see the request. */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationGlobalFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtParser parser;
+    private final List<PathPattern> publicPaths;
+    private final JwksKeySource jwksKeySource;
+    private final RevokedTokens revokedTokens;
+    private final SecretKey hmacKey;
+    private final Instant hmacUntil;
+
+    public JwtAuthenticationGlobalFilter(@Value("${gateway.jwt.secret:}") String secret,
+                                         @Value("${gateway.jwt.legacy-hmac-until:}") String legacyHmacUntil,
+                                         @Value("${gateway.jwt.public-paths:/api/auth/**}") List<String> publicPaths,
+                                         JwksKeySource jwksKeySource,
+                                         RevokedTokens revokedTokens) {
+        this.jwksKeySource = jwksKeySource;
+        this.revokedTokens = revokedTokens;
+        if (!secret.isBlank() && legacyHmacUntil.isBlank()) {
+            throw new IllegalStateException("gateway.jwt.secret needs gateway.jwt.legacy-hmac-until, the instant"
+                    + " HMAC-signed tokens stop being accepted");
+        }
+        this.hmacKey = secret.isBlank() ? null : Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.hmacUntil = hmacKey == null ? null : Instant.parse(legacyHmacUntil.trim());
+        this.parser = Jwts.parser()
+                .keyLocator(new SigningKeyLocator())
+                .build();
+        this.publicPaths = publicPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean publicPath = isPublic(request.getPath().pathWithinApplication());
+        String token = bearerToken(request);
+
+        if (token == null) {
+            if (!publicPath) {
+                return unauthorized(exchange, null);
+            }
+            return chain.filter(withIdentity(exchange, null));
+        }
+
+        GatewayPrincipal principal;
+        try {
+            principal = verify(token);
+        } catch (UnknownKeyIdException e) {
+            // Possibly a key auth-service rotated to after our last refresh
+            return jwksKeySource.refreshIfStale()
+                    .onErrorResume(error -> Mono.empty())
+                    .then(Mono.defer(() -> proceed(exchange, chain, publicPath, verifyAfterRefresh(token))));
+        }
+        return proceed(exchange, chain, publicPath, principal);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private static Mono<Void> proceed(ServerWebExchange exchange, GatewayFilterChain chain,
+                                      boolean publicPath, GatewayPrincipal principal) {
+        if (principal == null && !publicPath) {
+            return unauthorized(exchange, "invalid_token");
+        }
+        // A stale token on a public endpoint such as login must not block the request
+        return chain.filter(withIdentity(exchange, principal));
+    }
+
+    private boolean isPublic(PathContainer path) {
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String bearerToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    /**
+     * Returns the principal for a valid access token, or {@code null} if the token is invalid,
+     * expired, revoked or a refresh token (which carries no role).
+     *
+     * @throws UnknownKeyIdException if the token names a key id missing from the cached JWKS
+     */
+    private GatewayPrincipal verify(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String role = claims.get("role", String.class);
+            if (role == null) {
+                return null;
+            }
+            if (revokedTokens.isRevoked(claims.getId())) {
+                log.debug("Rejected revoked bearer token {}", claims.getId());
+                return null;
+            }
+            return new GatewayPrincipal(claims.get("uid", String.class), claims.getSubject(), role);
+        } catch (UnknownKeyIdException e) {
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private GatewayPrincipal verifyAfterRefresh(String token) {
+        try {
+            return verify(token);
+        } catch (UnknownKeyIdException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, GatewayPrincipal principal) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLE_HEADER);
+                    if (principal != null) {
+                        if (principal.userId() != null) {
+                            headers.set(USER_ID_HEADER, principal.userId());
+                        }
+                        headers.set(USER_EMAIL_HEADER, principal.email());
+                        headers.set(USER_ROLE_HEADER, principal.role());
+                    }
+                })
+                .build();
+        ServerWebExchange mutated = exchange.mutate().request(request).build();
+        if (principal != null) {
+            mutated.getAttributes().put(GatewayPrincipal.ATTRIBUTE, principal);
+        }
+        return mutated;
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String error) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE,
+                error == null ? "Bearer" : "Bearer error=\"" + error + "\"");
+        return response.setComplete();
+    }
+
+    private final class SigningKeyLocator extends LocatorAdapter<Key> {
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            String algorithm = header.getAlgorithm();
+            if (algorithm != null && algorithm.startsWith("HS")) {
+                if (hmacKey == null || !Instant.now().isBefore(hmacUntil)) {
+                    throw new UnsupportedJwtException("HMAC-signed tokens are not accepted");
+                }
+                return hmacKey;
+            }
+            String keyId = header.getKeyId();
+            if (keyId == null) {
+                throw new InvalidKeyException("Token has no key id");
+            }
+            Key key = jwksKeySource.key(keyId);
+            if (key == null) {
+                throw new UnknownKeyIdException(keyId);
+            }
+            return key;
+        }
+
+        @Override
+        protected Key doLocate(Header header) {
+            return null;
+        }
+    }
+
+    /** Raised when a token names a key id that is not in the cached key set. */
+    static final class UnknownKeyIdException extends InvalidKeyException {
+        UnknownKeyIdException(String keyId) {
+            super("Unknown signing key id: " + keyId);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.hospital.gateway_service.security;
+
+import com.hospital.common.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Token ids auth-service revoked before they expire, polled from its revocation feed so a token
+ * revoked by a logout stops working on every route within {@code poll-interval}.
+ * <p>
+ * As in auth-service's own denylist, a Bloom filter sits in front of the map so a token that was never
+ * revoked is answered on the event loop without touching the map, and entries are dropped once the
+ * token would fail its expiry check anyway.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+    private static final String GATEWAY_SECRET_HEADER = "X-Gateway-Secret";
+    // Revocations committed on auth-service shortly before the previous response was taken
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+    private final String feedUri;
+    private final String gatewaySecret;
+    private final Duration pollInterval;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Revocation> byExpiry =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(Revocation::expiresAt));
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant asOf;
+    private Disposable schedule;
+
+    public RevokedTokens(@LoadBalanced WebClient.Builder webClientBuilder,
+                         @Value("${gateway.revocation.feed-uri:}") String feedUri,
+                         @Value("${gateway.secret:}") String gatewaySecret,
+                         @Value("${gateway.revocation.poll-interval:10s}") Duration pollInterval,
+                         @Value("${gateway.revocation.expected-entries:100000}") int expectedEntries,
+                         @Value("${gateway.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.webClient = webClientBuilder.build();
+        this.feedUri = feedUri;
+        this.gatewaySecret = gatewaySecret;
+        this.pollInterval = pollInterval;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void start() {
+        if (feedUri.isBlank()) {
+            return;
+        }
+        schedule = Flux.interval(Duration.ZERO, pollInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> poll().onErrorResume(e -> {
+                    log.warn("Cannot poll token revocations from {}: {}", feedUri, e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Fetches revocations since the previous poll, or every unexpired one on the first.
+     */
+    Mono<Void> poll() {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(feedUri);
+        Instant since = asOf;
+        if (since != null) {
+            uri.queryParam("since", since.minus(POLL_OVERLAP));
+        }
+        return webClient.get()
+                .uri(uri.build().toUri())
+                .header(GATEWAY_SECRET_HEADER, gatewaySecret)
+                .retrieve()
+                .bodyToMono(RevocationFeed.class)
+                .doOnNext(this::apply)
+                .then();
+    }
+
+    void apply(RevocationFeed feed) {
+        if (feed.revocations() != null) {
+            feed.revocations().forEach(this::remember);
+        }
+        asOf = feed.asOf();
+        prune(Instant.now());
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    void prune(Instant now) {
+        synchronized (writeLock) {
+            boolean removed = false;
+            Revocation head;
+            while ((head = byExpiry.peek()) != null && !head.expiresAt().isAfter(now)) {
+                byExpiry.poll();
+                revoked.remove(head.jti(), head.expiresAt());
+                removed = true;
+            }
+            if (removed) {
+                bloomFilter = BloomFilter.of(revoked.keySet(), expectedEntries, falsePositiveRate);
+            }
+        }
+    }
+
+    private void remember(Revocation revocation) {
+        if (revocation.jti() == null || revocation.expiresAt() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(revocation.jti(), revocation.expiresAt()) == null) {
+                byExpiry.add(revocation);
+                bloomFilter.put(revocation.jti());
+            }
+        }
+    }
+
+    /** Response of auth-service's {@code /internal/revocations}. */
+    record RevocationFeed(Instant asOf, List<Revocation> revocations) {
+    }
+
+    record Revocation(String jti, Instant expiresAt) {
+    }
+}
@@ -1,13 +1,60 @@
 package com.hospital.gateway_service;
 
+import com.hospital.gateway_service.httpclient.RouteHttpClientRoutingFilter;
+import com.hospital.gateway_service.loadbalancer.LatencyAwareLoadBalancer;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class GatewayServiceApplicationTests {
 
+	@Autowired
+	private RouteLocator routeLocator;
+
+	@Autowired
+	private LoadBalancerClientFactory loadBalancerClientFactory;
+
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void configuredRoutesBind() {
+		List<Route> routes = routeLocator.getRoutes().collectList().block();
+		assertEquals(7, routes.size());
+		// Batch registration has its own time limit, so its route must win over the auth-service one
+		assertEquals("auth-batch", routes.get(0).getId());
+	}
+
+	@Test
+	void requestsAreRoutedOnce() {
+		assertInstanceOf(RouteHttpClientRoutingFilter.class, context.getBean(NettyRoutingFilter.class));
+		assertEquals(1, context.getBeansOfType(NettyWriteResponseFilter.class).size());
+	}
+
+	@Test
+	void servicesUseLatencyAwareLoadBalancer() {
+		Object loadBalancer = loadBalancerClientFactory.getInstance("patient-service");
+		assertInstanceOf(LatencyAwareLoadBalancer.class, loadBalancer);
+		assertTrue(loadBalancerClientFactory.getInstances("patient-service", LoadBalancerLifecycle.class)
+				.containsValue(loadBalancer));
+	}
+
 }
@@ -0,0 +1,137 @@
+package com.hospital.gateway_service.benchmark;
+
+import com.hospital.gateway_service.httpclient.RouteHttpClientFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bursts of concurrent requests from the gateway's HTTP client to a local stub backend that answers
+ * after 2 ms and, like Tomcat, closes an HTTP/1.1 connection after 100 requests. {@code stock} is Spring
+ * Cloud Gateway's default client (elastic pool), {@code fixed} the pool from application.properties
+ * and {@code h2c} a route with {@code protocols=h2c}, multiplexed over at most four connections.
+ * {@code connectionsOpened} counts the TCP connections the backend accepted per iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DownstreamHttpClientBenchmark {
+
+    private static final int BURST = 256;
+
+    @Param({"stock", "fixed", "h2c"})
+    private String client;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private DisposableServer backend;
+    private HttpClient httpClient;
+    private String uri;
+
+    @Setup
+    public void setUp() throws Exception {
+        backend = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                .maxKeepAliveRequests(100)
+                // Once per TCP connection; doOnConnection would also count each HTTP/2 stream
+                .doOnChannelInit((observer, channel, remoteAddress) -> accepted.incrementAndGet())
+                .handle((request, response) -> response.sendString(
+                        Mono.delay(Duration.ofMillis(2)).thenReturn("{\"id\":1,\"status\":\"SCHEDULED\"}")))
+                .bindNow();
+        uri = "http://localhost:" + backend.port() + "/appointments/1";
+
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        HttpClientSslConfigurer sslConfigurer =
+                new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry());
+        HttpClientFactory factory;
+        if ("stock".equals(client)) {
+            factory = new HttpClientFactory(properties, serverProperties, sslConfigurer, List.of());
+        } else {
+            HttpClientProperties.Pool pool = properties.getPool();
+            pool.setType(HttpClientProperties.Pool.PoolType.FIXED);
+            pool.setAcquireTimeout(2000L);
+            pool.setMaxIdleTime(Duration.ofSeconds(15));
+            // Mutable: the factory sorts its customizers
+            List<HttpClientCustomizer> customizers = new ArrayList<>();
+            if ("h2c".equals(client)) {
+                pool.setMaxConnections(4);
+                customizers.add(httpClient -> httpClient.protocol(HttpProtocol.H2C));
+            } else {
+                pool.setMaxConnections(500);
+            }
+            factory = new RouteHttpClientFactory(properties, serverProperties, sslConfigurer, customizers, 1000);
+        }
+        factory.afterPropertiesSet();
+        httpClient = factory.getObject();
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.configuration().connectionProvider().dispose();
+        backend.disposeNow();
+    }
+
+    @Benchmark
+    public Long burst(Connections connections) {
+        long before = accepted.get();
+        Long responses = Flux.range(0, BURST)
+                .flatMap(i -> httpClient.get().uri(uri).responseContent().aggregate().asString(), BURST)
+                .count()
+                .block();
+        connections.connectionsOpened += accepted.get() - before;
+        return responses;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Connections {
+        public long connectionsOpened;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            connectionsOpened = 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DownstreamHttpClientBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
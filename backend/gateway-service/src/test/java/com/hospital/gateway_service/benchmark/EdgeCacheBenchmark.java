@@ -0,0 +1,108 @@
+package com.hospital.gateway_service.benchmark;
+
+import com.hospital.gateway_service.cache.EdgeCacheGatewayFilterFactory;
+import com.hospital.gateway_service.security.JwtAuthenticationGlobalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per doctor listing request, eight at a time, against a backend taking 5 ms to return 8 KB of
+ * JSON: straight to the backend, and through {@code EdgeCache} with a 1 s time to live, so entries
+ * keep expiring and the concurrent misses for them share a backend request. 50 listings in
+ * 3 roles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EdgeCacheBenchmark {
+
+    private static final String[] ROLES = {"PATIENT", "DOCTOR", "ADMIN"};
+    private static final Route ROUTE = Route.async()
+            .id("doctor-service")
+            .uri("lb://doctor-service")
+            .predicate(exchange -> true)
+            .build();
+
+    private byte[] body;
+    private GatewayFilterChain backend;
+    private GatewayFilter edgeCache;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < 8 * 1024; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"Dr. Doctor ").append(i)
+                    .append("\",\"specialization\":\"Cardiology\",\"available\":true},");
+        }
+        body = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+        backend = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return Mono.delay(Duration.ofMillis(5))
+                    .then(response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body))));
+        };
+        EdgeCacheGatewayFilterFactory factory = new EdgeCacheGatewayFilterFactory(DataSize.ofMegabytes(64),
+                DataSize.ofMegabytes(1), new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        edgeCache = factory.apply(new EdgeCacheGatewayFilterFactory.Config().setTtl(Duration.ofSeconds(1)));
+    }
+
+    @Benchmark
+    public void direct() {
+        backend.filter(exchange()).block();
+    }
+
+    @Benchmark
+    public void edgeCache() {
+        edgeCache.filter(exchange(), backend).block();
+    }
+
+    private static MockServerWebExchange exchange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/doctors?specialization=" + random.nextInt(50))
+                .header(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER, ROLES[random.nextInt(ROLES.length)]));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EdgeCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.hospital.gateway_service.benchmark;
+
+import com.hospital.gateway_service.security.JwksKeySource;
+import com.hospital.gateway_service.security.JwtAuthenticationGlobalFilter;
+import com.hospital.gateway_service.security.RevokedTokens;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.client.discovery.simple.reactive.SimpleReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.reactive.SimpleReactiveDiscoveryProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the edge JWT filter with several request threads sharing one filter instance, as
+ * event-loop threads do in the gateway.
+ * <p>
+ * Run with {@code java -cp target/test-classes:target/classes:<test classpath>
+ * com.hospital.gateway_service.benchmark.JwtAuthenticationGlobalFilterBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtAuthenticationGlobalFilterBenchmark {
+
+    private static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+
+    private JwtAuthenticationGlobalFilter filter;
+    private String authorization;
+    private String rsaAuthorization;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        JwksKeySource keySource = new JwksKeySource(
+                new SimpleReactiveDiscoveryClient(new SimpleReactiveDiscoveryProperties()), "", Duration.ofMinutes(5), Duration.ofSeconds(10));
+        ReflectionTestUtils.invokeMethod(keySource, "update",
+                "{\"keys\":[" + Jwks.json(Jwks.builder().key(keyPair.getPublic()).id("bench").build()) + "]}");
+        filter = new JwtAuthenticationGlobalFilter(SECRET, "2999-01-01T00:00:00Z", List.of("/api/auth/**"), keySource,
+                new RevokedTokens(WebClient.builder(), "", "", Duration.ofSeconds(10), 100_000, 0.01));
+        long now = System.currentTimeMillis();
+        String token = Jwts.builder()
+                .subject("doctor@hospital.com")
+                .claim("uid", UUID.randomUUID().toString())
+                .claim("role", "DOCTOR")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        authorization = "Bearer " + token;
+        rsaAuthorization = "Bearer " + Jwts.builder()
+                .header().keyId("bench").and()
+                .subject("doctor@hospital.com")
+                .claim("uid", UUID.randomUUID().toString())
+                .claim("role", "DOCTOR")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    @Benchmark
+    public void verifyAndPropagate(Blackhole blackhole) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, authorization));
+        GatewayFilterChain chain = ex -> {
+            blackhole.consume(ex.getRequest().getHeaders());
+            return Mono.empty();
+        };
+        filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public void verifyRs256AndPropagate(Blackhole blackhole) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, rsaAuthorization));
+        filter.filter(exchange, ex -> {
+            blackhole.consume(ex.getRequest().getHeaders());
+            return Mono.empty();
+        }).block();
+    }
+
+    @Benchmark
+    public void rejectMissingToken(Blackhole blackhole) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1"));
+        filter.filter(exchange, ex -> Mono.empty()).block();
+        blackhole.consume(exchange.getResponse().getStatusCode());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationGlobalFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
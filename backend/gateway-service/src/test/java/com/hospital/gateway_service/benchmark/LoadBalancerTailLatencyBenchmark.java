@@ -0,0 +1,113 @@
+package com.hospital.gateway_service.benchmark;
+
+import com.hospital.gateway_service.loadbalancer.LatencyAwareLoadBalancer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency distribution of requests spread over three stub instances of a service, two answering in
+ * about 1 ms and one in about 20 ms, by round robin against the latency-aware load balancer. A request
+ * "runs" by parking the calling thread for its instance's latency, so the run measures where requests
+ * go rather than CPU time; compare the p0.99 and p0.999 rows. Eight threads keep several requests in
+ * flight, as concurrent gateway traffic would.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoadBalancerTailLatencyBenchmark {
+
+    private static final ServiceInstance FAST_1 = new DefaultServiceInstance("patient-1", "patient-service", "10.0.0.1", 8080, false);
+    private static final ServiceInstance FAST_2 = new DefaultServiceInstance("patient-2", "patient-service", "10.0.0.2", 8080, false);
+    private static final ServiceInstance SLOW = new DefaultServiceInstance("patient-3", "patient-service", "10.0.0.3", 8080, false);
+
+    private static final Map<ServiceInstance, Long> LATENCY_NANOS = Map.of(
+            FAST_1, TimeUnit.MILLISECONDS.toNanos(1),
+            FAST_2, TimeUnit.MILLISECONDS.toNanos(1),
+            SLOW, TimeUnit.MILLISECONDS.toNanos(20));
+
+    @Param({"roundRobin", "latencyAware"})
+    private String loadBalancer;
+
+    private ReactorServiceInstanceLoadBalancer balancer;
+    private LoadBalancerLifecycle<Object, Object, ServiceInstance> lifecycle;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ObjectProvider<ServiceInstanceListSupplier> instances =
+                ServiceInstanceListSuppliers.toProvider("patient-service", FAST_1, FAST_2, SLOW);
+        if ("latencyAware".equals(loadBalancer)) {
+            LatencyAwareLoadBalancer latencyAware = new LatencyAwareLoadBalancer(instances, "patient-service",
+                    Duration.ofSeconds(2), 5, Duration.ofSeconds(30), 50);
+            balancer = latencyAware;
+            lifecycle = latencyAware;
+        } else {
+            balancer = new RoundRobinLoadBalancer(instances, "patient-service");
+        }
+    }
+
+    @Benchmark
+    public ServiceInstance request() {
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = balancer.choose(request).block();
+        ServiceInstance instance = response.getServer();
+        if (lifecycle != null) {
+            lifecycle.onStartRequest(request, response);
+        }
+
+        long latency = LATENCY_NANOS.get(instance);
+        LockSupport.parkNanos(latency + ThreadLocalRandom.current().nextLong(latency / 5));
+
+        if (lifecycle != null) {
+            lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response,
+                    new ResponseData(HttpStatus.OK, new HttpHeaders(), new LinkedMultiValueMap<>(), null)));
+        }
+        return instance;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoadBalancerTailLatencyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
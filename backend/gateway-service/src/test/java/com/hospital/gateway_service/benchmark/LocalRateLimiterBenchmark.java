@@ -0,0 +1,104 @@
+package com.hospital.gateway_service.benchmark;
+
+import com.hospital.gateway_service.ratelimit.LocalRateLimiterGatewayFilterFactory;
+import com.hospital.gateway_service.security.GatewayPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the local rate limiter adds to an admitted request, against calling the rest of the chain
+ * directly, spread over four request threads. With 10,000 clients the exchanges, principals and
+ * buckets no longer fit in the CPU caches, so that run is mostly memory latency a real request
+ * would already have paid when it parsed the same address and token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LocalRateLimiterBenchmark {
+
+    @Param({"100", "10000"})
+    private int clients;
+
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+    private GatewayFilter ipLimiter;
+    private GatewayFilter userLimiter;
+    private MockServerWebExchange[] exchanges;
+
+    @Setup
+    public void setUp() {
+        LocalRateLimiterGatewayFilterFactory factory = new LocalRateLimiterGatewayFilterFactory(100_000,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        // High enough that every request is admitted, so the numbers are the overhead on the happy path
+        ipLimiter = factory.apply(new LocalRateLimiterGatewayFilterFactory.Config()
+                .setKey(LocalRateLimiterGatewayFilterFactory.KeyType.IP)
+                .setLimit(Integer.MAX_VALUE)
+                .setPeriod(Duration.ofMinutes(1)));
+        userLimiter = factory.apply(new LocalRateLimiterGatewayFilterFactory.Config()
+                .setKey(LocalRateLimiterGatewayFilterFactory.KeyType.USER)
+                .setLimit(Integer.MAX_VALUE)
+                .setPeriod(Duration.ofMinutes(1)));
+
+        exchanges = new MockServerWebExchange[clients];
+        for (int i = 0; i < clients; i++) {
+            String address = "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF);
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                    .remoteAddress(new InetSocketAddress(address, 40_000)));
+            exchanges[i].getAttributes().put(GatewayPrincipal.ATTRIBUTE,
+                    new GatewayPrincipal("user-" + i, "user-" + i + "@hospital.com", "PATIENT"));
+        }
+    }
+
+    @Benchmark
+    public Mono<Void> baseline() {
+        return chain.filter(nextExchange());
+    }
+
+    @Benchmark
+    public Mono<Void> ipKey() {
+        return ipLimiter.filter(nextExchange(), chain);
+    }
+
+    @Benchmark
+    public Mono<Void> userKey() {
+        return userLimiter.filter(nextExchange(), chain);
+    }
+
+    private MockServerWebExchange nextExchange() {
+        return exchanges[ThreadLocalRandom.current().nextInt(clients)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalRateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.hospital.gateway_service.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One patient page going out through the gateway's response pipeline: the backend's body arrives as
+ * 8 KB pooled buffers and passes through Netty's compressor with Reactor Netty's default options, as
+ * {@code server.compression} sets it up. {@code identity} is a client that accepts no encoding, the
+ * buffers being forwarded as they are. Time per page is the gateway's CPU per request (single thread,
+ * no I/O); run with {@code -prof gc} for the allocation per request ({@code gc.alloc.rate.norm}). The
+ * bytes written per page are printed when a trial starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseCompressionBenchmark {
+
+    private static final int CHUNK = 8 * 1024;
+
+    @Param({"identity", "gzip", "br"})
+    private String encoding;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private EmbeddedChannel channel;
+    private ByteBuf body;
+
+    @Setup
+    public void setUp() {
+        channel = new EmbeddedChannel(new HttpContentCompressor(0, StandardCompressionOptions.gzip(),
+                StandardCompressionOptions.deflate(), StandardCompressionOptions.brotli()));
+        byte[] page = page(pageSize).getBytes(StandardCharsets.UTF_8);
+        body = PooledByteBufAllocator.DEFAULT.directBuffer(page.length).writeBytes(page);
+        System.out.printf("%n%s, %d patients: %d bytes written for a %d byte page%n",
+                encoding, pageSize, respond(), page.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        body.release();
+    }
+
+    @Benchmark
+    public long respond() {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+                "/api/patients?page=0&size=" + pageSize);
+        if (!"identity".equals(encoding)) {
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, encoding);
+        }
+        channel.writeInbound(request);
+        ReferenceCountUtil.release(channel.readInbound());
+
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers()
+                .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                .set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        channel.write(response);
+        // Slices of the backend's buffer, as the routing filter hands them on without copying
+        for (int offset = 0; offset < body.readableBytes(); offset += CHUNK) {
+            channel.write(new DefaultHttpContent(body.retainedSlice(offset, Math.min(CHUNK, body.readableBytes() - offset))));
+        }
+        channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+
+        long written = 0;
+        for (Object message; (message = channel.readOutbound()) != null; ) {
+            if (message instanceof ByteBufHolder content) {
+                written += content.content().readableBytes();
+            }
+            ReferenceCountUtil.release(message);
+        }
+        return written;
+    }
+
+    // The paginated shape from API_DESIGN_DOCUMENT.md
+    private static String page(int size) {
+        StringBuilder json = new StringBuilder("{\"content\":[");
+        for (int i = 0; i < size; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"7c9e6679-7425-40de-944b-e07fc1f9").append(String.format("%04d", i))
+                    .append("\",\"userId\":\"16fd2706-8baf-433b-82eb-8c7fada8").append(String.format("%04d", i))
+                    .append("\",\"name\":\"Patient ").append(i)
+                    .append("\",\"age\":").append(20 + i % 60)
+                    .append(",\"gender\":\"").append(i % 2 == 0 ? "FEMALE" : "MALE")
+                    .append("\",\"contact\":\"55501").append(String.format("%05d", i))
+                    .append("\",\"address\":\"").append(100 + i).append(" Main St")
+                    .append("\",\"dateOfBirth\":\"19").append(40 + i % 60).append("-01-01")
+                    .append("\",\"bloodGroup\":\"O+\",\"medicalHistory\":\"None\"}");
+        }
+        return json.append("],\"page\":0,\"size\":").append(size).append(",\"totalElements\":").append(size)
+                .append(",\"totalPages\":1,\"first\":true,\"last\":true}").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseCompressionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,206 @@
+package com.hospital.gateway_service.cache;
+
+import com.hospital.gateway_service.security.JwtAuthenticationGlobalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeCacheGatewayFilterFactoryTest {
+
+    private static final String DOCTORS = "[{\"id\":1,\"name\":\"Dr. Grey\",\"specialization\":\"Surgery\"}]";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong ticker = new AtomicLong();
+    private final List<HttpHeaders> backendRequests = new ArrayList<>();
+    private String cacheControl;
+    private Mono<Void> backendDelay = Mono.empty();
+
+    @Test
+    void repeatedGet_IsServedFromCache() {
+        GatewayFilter filter = filter(1_000);
+
+        MockServerWebExchange miss = run(filter, get("/api/doctors?specialization=Surgery", "PATIENT"));
+        MockServerWebExchange hit = run(filter, get("/api/doctors?specialization=Surgery", "PATIENT"));
+
+        assertEquals(1, backendRequests.size());
+        assertEquals("MISS", miss.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals("HIT", hit.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_HEADER));
+        assertEquals(HttpStatus.OK, hit.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, hit.getResponse().getHeaders().getContentType());
+        assertNotNull(hit.getResponse().getHeaders().getETag());
+        assertEquals(DOCTORS, hit.getResponse().getBodyAsString().block());
+        assertEquals(1, registry.get(EdgeCacheGatewayFilterFactory.REQUESTS_METRIC).tag("result", "hit").counter().count());
+        assertEquals(1, registry.get(EdgeCacheGatewayFilterFactory.REQUESTS_METRIC).tag("result", "miss").counter().count());
+        assertEquals(DOCTORS.length(), registry.get(EdgeCacheGatewayFilterFactory.BYTES_SAVED_METRIC).counter().count());
+    }
+
+    @Test
+    void roles_AreCachedSeparately() {
+        GatewayFilter filter = filter(1_000);
+
+        run(filter, get("/api/doctors", "PATIENT"));
+        run(filter, get("/api/doctors", "ADMIN"));
+        MockServerWebExchange patientAgain = run(filter, get("/api/doctors", "PATIENT"));
+
+        assertEquals(2, backendRequests.size());
+        assertEquals("HIT", patientAgain.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_HEADER));
+    }
+
+    @Test
+    void matchingIfNoneMatch_GetsNotModifiedFromCache() {
+        GatewayFilter filter = filter(1_000);
+        MockServerWebExchange first = run(filter, get("/api/doctors", "PATIENT")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        String etag = run(filter, get("/api/doctors", "PATIENT")).getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = run(filter, get("/api/doctors", "PATIENT").header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertEquals(HttpStatus.OK, first.getResponse().getStatusCode());
+        assertFalse(backendRequests.get(0).containsKey(HttpHeaders.IF_NONE_MATCH));
+        assertFalse(backendRequests.get(0).containsKey(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(1, backendRequests.size());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals(etag, revalidated.getResponse().getHeaders().getETag());
+        assertEquals("", revalidated.getResponse().getBodyAsString().defaultIfEmpty("").block());
+    }
+
+    @Test
+    void concurrentMisses_ShareOneBackendRequest() {
+        GatewayFilter filter = filter(1_000);
+        Sinks.Empty<Void> backendResponds = Sinks.empty();
+        backendDelay = backendResponds.asMono();
+        List<MockServerWebExchange> exchanges = List.of(exchange(get("/api/doctors", "PATIENT")),
+                exchange(get("/api/doctors", "PATIENT")), exchange(get("/api/doctors", "PATIENT")));
+        List<Mono<Void>> pending = exchanges.stream()
+                .map(exchange -> filter.filter(exchange, backend()).cache())
+                .toList();
+        pending.forEach(Mono::subscribe);
+
+        backendResponds.tryEmitEmpty();
+        pending.forEach(Mono::block);
+
+        assertEquals(1, backendRequests.size());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(DOCTORS, exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(2, registry.get(EdgeCacheGatewayFilterFactory.REQUESTS_METRIC).tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void expiredOrUncacheableResponses_GoToBackend() {
+        GatewayFilter filter = filter(1_000);
+        run(filter, get("/api/doctors", "PATIENT"));
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        run(filter, get("/api/doctors", "PATIENT"));
+        assertEquals(2, backendRequests.size());
+
+        cacheControl = "no-store";
+        run(filter, get("/api/doctors/1", "PATIENT"));
+        run(filter, get("/api/doctors/1", "PATIENT"));
+        assertEquals(4, backendRequests.size());
+
+        cacheControl = null;
+        GatewayFilter tooSmall = filter(DOCTORS.length() - 1);
+        run(tooSmall, get("/api/doctors", "PATIENT"));
+        run(tooSmall, get("/api/doctors", "PATIENT"));
+        assertEquals(6, backendRequests.size());
+    }
+
+    @Test
+    void successfulWrite_InvalidatesRoute() {
+        GatewayFilter filter = filter(1_000);
+        run(filter, get("/api/doctors", "PATIENT"));
+
+        run(filter, MockServerHttpRequest.put("/api/doctors/1")
+                .header(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER, "ADMIN"));
+        MockServerWebExchange afterWrite = run(filter, get("/api/doctors", "PATIENT"));
+
+        assertEquals(3, backendRequests.size());
+        assertEquals("MISS", afterWrite.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_HEADER));
+    }
+
+    @Test
+    void writeDuringMiss_KeepsFetchedResponseOutOfCache() {
+        GatewayFilter filter = filter(1_000);
+        Sinks.Empty<Void> backendResponds = Sinks.empty();
+        backendDelay = backendResponds.asMono();
+        Mono<Void> miss = filter.filter(exchange(get("/api/doctors", "PATIENT")), backend()).cache();
+        miss.subscribe();
+
+        // The backend read the listing before this write, and answers after it
+        backendDelay = Mono.empty();
+        run(filter, MockServerHttpRequest.put("/api/doctors/1")
+                .header(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER, "ADMIN"));
+        backendResponds.tryEmitEmpty();
+        miss.block();
+        MockServerWebExchange afterWrite = run(filter, get("/api/doctors", "PATIENT"));
+
+        assertEquals(3, backendRequests.size());
+        assertEquals("MISS", afterWrite.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_HEADER));
+    }
+
+    private GatewayFilter filter(long maxEntryBytes) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        EdgeCacheGatewayFilterFactory factory = new EdgeCacheGatewayFilterFactory(
+                new ResponseCache(1_000_000, ticker::get), maxEntryBytes, beanFactory.getBeanProvider(MeterRegistry.class));
+        return factory.apply(new EdgeCacheGatewayFilterFactory.Config().setTtl(Duration.ofMinutes(1)));
+    }
+
+    private GatewayFilterChain backend() {
+        return exchange -> {
+            backendRequests.add(exchange.getRequest().getHeaders());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (cacheControl != null) {
+                response.getHeaders().setCacheControl(cacheControl);
+            }
+            return backendDelay.then(response.writeWith(Mono.fromSupplier(() ->
+                    response.bufferFactory().wrap(DOCTORS.getBytes(StandardCharsets.UTF_8)))));
+        };
+    }
+
+    private MockServerWebExchange run(GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = exchange(request);
+        filter.filter(exchange, backend()).block();
+        return exchange;
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> get(String uri, String role) {
+        return MockServerHttpRequest.get(uri).header(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER, role);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("doctor-service")
+                .uri("lb://doctor-service")
+                .predicate(ex -> true)
+                .build());
+        return exchange;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hospital.gateway_service.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Patient pages through the gateway from a local backend that streams them in chunks of unknown length.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.jwt.secret=" + CompressionConfigTest.SECRET,
+        "gateway.jwt.legacy-hmac-until=2999-01-01T00:00:00Z"
+})
+class CompressionConfigTest {
+
+    static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+    private static final List<String> PAGE = patients(100);
+    private static final String PATIENT = PAGE.get(1);
+    private static final byte[] ENCODED_PAGE = gzip(String.join("", PAGE));
+
+    private static final DisposableServer backend = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Flux.fromIterable(PAGE)))
+                    .get("/1", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just(PATIENT)))
+                    .get("/export", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                            .sendByteArray(Mono.just(ENCODED_PAGE))))
+            .bindNow();
+
+    @LocalServerPort
+    private int port;
+
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        String prefix = "spring.cloud.discovery.client.simple.instances.patient-service[0].";
+        registry.add(prefix + "uri", () -> "http://localhost:" + backend.port());
+        registry.add(prefix + "instance-id", () -> "patient-service-1");
+    }
+
+    // A client that neither asks for nor decodes compressed bodies unless the test says so
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create().compress(false)))
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void largePage_IsEncodedAsTheClientAccepts() throws IOException {
+        String page = String.join("", PAGE);
+
+        EntityExchangeResult<byte[]> gzip = get("/api/patients?page=0&size=100", "gzip");
+        EntityExchangeResult<byte[]> brotli = get("/api/patients?page=0&size=100", "gzip, deflate, br");
+        EntityExchangeResult<byte[]> plain = get("/api/patients?page=0&size=100", null);
+
+        assertEquals("gzip", gzip.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(page, gunzip(gzip.getResponseBody()));
+        assertTrue(gzip.getResponseBody().length < page.length() / 4);
+
+        assertEquals("br", brotli.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        Brotli4jLoader.ensureAvailability();
+        assertEquals(page, new String(Decoder.decompress(brotli.getResponseBody()).getDecompressedData(), StandardCharsets.UTF_8));
+
+        assertNull(plain.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(page, new String(plain.getResponseBody(), StandardCharsets.UTF_8));
+        for (EntityExchangeResult<byte[]> result : List.of(gzip, brotli, plain)) {
+            assertTrue(result.getResponseHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        }
+    }
+
+    @Test
+    void smallResponse_IsSentAsIs() {
+        EntityExchangeResult<byte[]> result = get("/api/patients/1", "gzip, br");
+
+        assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(PATIENT, new String(result.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void backendEncodedBody_PassesThrough() {
+        EntityExchangeResult<byte[]> result = get("/api/patients/export", "br, gzip");
+
+        assertEquals(List.of("gzip"), result.getResponseHeaders().get(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(ENCODED_PAGE, result.getResponseBody());
+    }
+
+    private EntityExchangeResult<byte[]> get(String uri, String acceptEncoding) {
+        return webTestClient.get().uri(uri)
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .headers(headers -> {
+                    if (acceptEncoding != null) {
+                        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+                    }
+                })
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult();
+    }
+
+    // One element per patient, as a backend serializing a page would flush them
+    private static List<String> patients(int size) {
+        List<String> page = new ArrayList<>();
+        page.add("{\"content\":[");
+        for (int i = 0; i < size; i++) {
+            page.add((i > 0 ? "," : "") + "{\"id\":\"7c9e6679-7425-40de-944b-e07fc1f9" + String.format("%04d", i)
+                    + "\",\"userId\":\"16fd2706-8baf-433b-82eb-8c7fada8" + String.format("%04d", i)
+                    + "\",\"name\":\"Patient " + i + "\",\"age\":" + (20 + i % 60)
+                    + ",\"gender\":\"" + (i % 2 == 0 ? "FEMALE" : "MALE") + "\",\"contact\":\"55501" + String.format("%05d", i)
+                    + "\",\"address\":\"" + (100 + i) + " Main St\",\"dateOfBirth\":\"19" + (40 + i % 60) + "-01-01\""
+                    + ",\"bloodGroup\":\"O+\",\"medicalHistory\":\"None\"}");
+        }
+        page.add("],\"page\":0,\"size\":" + size + ",\"totalElements\":" + size
+                + ",\"totalPages\":1,\"first\":true,\"last\":true}");
+        return page;
+    }
+
+    private static byte[] gzip(String body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String bearer() {
+        long now = System.currentTimeMillis();
+        return "Bearer " + Jwts.builder()
+                .subject("admin@hospital.com")
+                .claim("uid", "admin-1")
+                .claim("role", "ADMIN")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
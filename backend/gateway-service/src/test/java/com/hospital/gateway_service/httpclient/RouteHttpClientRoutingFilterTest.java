@@ -0,0 +1,142 @@
+package com.hospital.gateway_service.httpclient;
+
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteHttpClientRoutingFilterTest {
+
+    private final HttpClientProperties properties = new HttpClientProperties();
+    private DisposableServer backend;
+    private RouteHttpClientFactory factory;
+    private HttpClient sharedClient;
+    private RouteHttpClientRoutingFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backend = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.H2C, HttpProtocol.HTTP11)
+                .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+                .bindNow();
+
+        properties.getPool().setType(HttpClientProperties.Pool.PoolType.FIXED);
+        ServerProperties serverProperties = new ServerProperties();
+        factory = new RouteHttpClientFactory(properties, serverProperties,
+                new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry()),
+                List.of(), 100);
+        factory.afterPropertiesSet();
+        sharedClient = factory.getObject();
+        filter = new RouteHttpClientRoutingFilter(sharedClient, new StaticListableBeanFactory()
+                .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class)),
+                properties, factory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.destroy();
+        sharedClient.configuration().connectionProvider().dispose();
+        backend.disposeNow();
+    }
+
+    @Test
+    void routeWithoutSettings_UsesSharedClient() {
+        Route route = route(Map.of());
+
+        assertSame(sharedClient, filter.getHttpClient(route, exchange()));
+        assertEquals("HTTP/1.1", get(sharedClient));
+    }
+
+    @Test
+    void routeWithH2c_SpeaksHttp2ToBackend() {
+        Route route = route(Map.of(RouteClientSettings.PROTOCOLS, "h2c"));
+
+        HttpClient routeClient = filter.getHttpClient(route, exchange());
+
+        assertNotSame(sharedClient, routeClient);
+        assertEquals("HTTP/2.0", get(routeClient));
+    }
+
+    @Test
+    void routeClient_IsReusedUntilSettingsChange() {
+        HttpClient first = filter.getHttpClient(route(Map.of(RouteClientSettings.MAX_CONNECTIONS, "2")), exchange());
+        HttpClient again = filter.getHttpClient(route(Map.of(RouteClientSettings.MAX_CONNECTIONS, "2")), exchange());
+        HttpClient changed = filter.getHttpClient(route(Map.of(RouteClientSettings.MAX_CONNECTIONS, "4")), exchange());
+
+        assertSame(first.configuration().connectionProvider(), again.configuration().connectionProvider());
+        assertNotSame(first.configuration().connectionProvider(), changed.configuration().connectionProvider());
+        assertEquals(4, changed.configuration().connectionProvider().maxConnections());
+    }
+
+    @Test
+    void sameRoute_ReturnsCachedClient() {
+        Route route = route(Map.of(RouteClientSettings.MAX_CONNECTIONS, "2", RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, 500));
+
+        HttpClient first = filter.getHttpClient(route, exchange());
+
+        assertSame(first, filter.getHttpClient(route, exchange()));
+        assertEquals(500, first.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS));
+    }
+
+    @Test
+    void connectionProvider_AppliesRouteOverrides() {
+        properties.getPool().setMaxConnections(50);
+        ConnectionProvider shared = factory.connectionProvider("proxy", RouteClientSettings.NONE);
+        ConnectionProvider route = factory.connectionProvider("route-auth", RouteClientSettings.from(
+                Map.of(RouteClientSettings.MAX_CONNECTIONS, 8, RouteClientSettings.MAX_IDLE_TIME, "5000")));
+        try {
+            assertEquals(50, shared.maxConnections());
+            assertEquals(8, route.maxConnections());
+        } finally {
+            shared.dispose();
+            route.dispose();
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> RouteClientSettings.from(Map.of(RouteClientSettings.PROTOCOLS, "spdy")));
+    }
+
+    private Route route(Map<String, Object> metadata) {
+        return Route.async()
+                .id("auth-service")
+                .uri("http://localhost:" + backend.port())
+                .predicate(exchange -> true)
+                .metadata(metadata)
+                .build();
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/me"));
+    }
+
+    private String get(HttpClient httpClient) {
+        return httpClient.get()
+                .uri("http://localhost:" + backend.port() + "/")
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block();
+    }
+}
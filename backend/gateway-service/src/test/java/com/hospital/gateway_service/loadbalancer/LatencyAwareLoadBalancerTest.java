@@ -0,0 +1,166 @@
+package com.hospital.gateway_service.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyAwareLoadBalancerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private final ServiceInstance fast1 = new DefaultServiceInstance("patient-1", "patient-service", "10.0.0.1", 8080, false);
+    private final ServiceInstance fast2 = new DefaultServiceInstance("patient-2", "patient-service", "10.0.0.2", 8080, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("patient-3", "patient-service", "10.0.0.3", 8080, false);
+
+    @Test
+    void slowInstance_IsNotChosen() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast1, fast2, slow);
+        respond(loadBalancer, fast1, 2, HttpStatus.OK);
+        respond(loadBalancer, fast2, 3, HttpStatus.OK);
+        respond(loadBalancer, slow, 50, HttpStatus.OK);
+
+        for (int i = 0; i < 100; i++) {
+            assertNotEquals(slow, choose(loadBalancer));
+        }
+    }
+
+    @Test
+    void busyInstance_IsAvoidedUntilItsRequestsComplete() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast1, fast2);
+        respond(loadBalancer, fast1, 2, HttpStatus.OK);
+        respond(loadBalancer, fast2, 3, HttpStatus.OK);
+        Request<Object> pending = new DefaultRequest<>(new RequestDataContext());
+        loadBalancer.onStartRequest(pending, new DefaultResponse(fast1));
+
+        assertEquals(fast2, choose(loadBalancer));
+
+        complete(loadBalancer, pending, fast1, HttpStatus.OK);
+        assertEquals(fast1, choose(loadBalancer));
+    }
+
+    @Test
+    void cancelledExchange_ReleasesItsInstance() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast1, fast2);
+        respond(loadBalancer, fast1, 2, HttpStatus.OK);
+        respond(loadBalancer, fast2, 3, HttpStatus.OK);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients"));
+        Request<Object> cancelled = new DefaultRequest<>(new RequestDataContext(
+                new RequestData(exchange.getRequest(), exchange.getAttributes())));
+
+        Disposable inFlight = new InFlightReleaseFilter()
+                .filter(exchange, chained -> Mono.<Void>never()
+                        .doOnSubscribe(subscription -> loadBalancer.onStartRequest(cancelled, new DefaultResponse(fast1))))
+                .subscribe();
+        assertEquals(fast2, choose(loadBalancer));
+
+        inFlight.dispose();
+        assertEquals(fast1, choose(loadBalancer));
+
+        // A completion reported after all must not release the request twice
+        complete(loadBalancer, cancelled, fast1, HttpStatus.OK);
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(fast1));
+        assertEquals(fast2, choose(loadBalancer));
+    }
+
+    @Test
+    void failingInstance_IsEjectedThenTriedAgain() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast1, fast2, slow);
+        respond(loadBalancer, fast2, 3, HttpStatus.OK);
+        respond(loadBalancer, slow, 50, HttpStatus.OK);
+        for (int i = 0; i < 4; i++) {
+            respond(loadBalancer, fast1, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        respond(loadBalancer, fast1, 1, HttpStatus.OK);
+        for (int i = 0; i < 4; i++) {
+            respond(loadBalancer, fast1, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertTrue(chosen(loadBalancer).contains(fast1), "errors must be consecutive to eject");
+
+        respond(loadBalancer, fast1, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        assertFalse(chosen(loadBalancer).contains(fast1));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(chosen(loadBalancer).contains(fast1));
+    }
+
+    @Test
+    void ejection_IsCappedAtMaxEjectionPercent() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(fast1, fast2);
+        for (int i = 0; i < 5; i++) {
+            fail(loadBalancer, fast1);
+        }
+        assertEquals(Set.of(fast2), chosen(loadBalancer));
+
+        for (int i = 0; i < 5; i++) {
+            fail(loadBalancer, fast2);
+        }
+        // Both ejected is over the 50% cap, so fast1 is back in rotation
+        assertTrue(chosen(loadBalancer).contains(fast1));
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(ServiceInstance... instances) {
+        return new LatencyAwareLoadBalancer(ServiceInstanceListSuppliers.toProvider("patient-service", instances),
+                "patient-service", Duration.ofSeconds(10), 5, Duration.ofSeconds(30), 50, now::get);
+    }
+
+    private ServiceInstance choose(LatencyAwareLoadBalancer loadBalancer) {
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block();
+        assertNotNull(response);
+        return response.getServer();
+    }
+
+    private Set<ServiceInstance> chosen(LatencyAwareLoadBalancer loadBalancer) {
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            chosen.add(choose(loadBalancer));
+        }
+        return chosen;
+    }
+
+    private void respond(LatencyAwareLoadBalancer loadBalancer, ServiceInstance instance, long millis, HttpStatus status) {
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+        loadBalancer.onStartRequest(request, new DefaultResponse(instance));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        complete(loadBalancer, request, instance, status);
+    }
+
+    private void complete(LatencyAwareLoadBalancer loadBalancer, Request<Object> request, ServiceInstance instance,
+                          HttpStatus status) {
+        ResponseData response = new ResponseData(status, new HttpHeaders(), new LinkedMultiValueMap<>(), null);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request,
+                new DefaultResponse(instance), response));
+    }
+
+    private void fail(LatencyAwareLoadBalancer loadBalancer, ServiceInstance instance) {
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+        loadBalancer.onStartRequest(request, new DefaultResponse(instance));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+                new ConnectException("Connection refused"), request, new DefaultResponse(instance)));
+    }
+}
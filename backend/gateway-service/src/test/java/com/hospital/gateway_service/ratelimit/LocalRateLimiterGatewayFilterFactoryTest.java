@@ -0,0 +1,93 @@
+package com.hospital.gateway_service.ratelimit;
+
+import com.hospital.gateway_service.security.GatewayPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRateLimiterGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger forwarded = new AtomicInteger();
+
+    @Test
+    void ipKey_RejectsOverLimitWith429AndRetryAfter() {
+        GatewayFilter filter = filter(LocalRateLimiterGatewayFilterFactory.KeyType.IP, 2);
+
+        assertNull(run(filter, exchange("10.0.0.1", null)).getResponse().getStatusCode());
+        assertNull(run(filter, exchange("10.0.0.1", null)).getResponse().getStatusCode());
+        MockServerWebExchange rejected = run(filter, exchange("10.0.0.1", null));
+        MockServerWebExchange otherClient = run(filter, exchange("10.0.0.2", null));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("30", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNull(otherClient.getResponse().getStatusCode());
+        assertEquals(3, forwarded.get());
+        assertEquals(1, registry.get(LocalRateLimiterGatewayFilterFactory.REJECTED_METRIC).counter().count());
+    }
+
+    @Test
+    void userKey_LimitsPerUserAcrossAddresses() {
+        GatewayFilter filter = filter(LocalRateLimiterGatewayFilterFactory.KeyType.USER, 1);
+        GatewayPrincipal alice = new GatewayPrincipal("alice-id", "alice@hospital.com", "PATIENT");
+        GatewayPrincipal bob = new GatewayPrincipal("bob-id", "bob@hospital.com", "PATIENT");
+
+        run(filter, exchange("10.0.0.1", alice));
+        MockServerWebExchange aliceAgain = run(filter, exchange("10.0.0.9", alice));
+        MockServerWebExchange bobSameAddress = run(filter, exchange("10.0.0.1", bob));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, aliceAgain.getResponse().getStatusCode());
+        assertNull(bobSameAddress.getResponse().getStatusCode());
+    }
+
+    @Test
+    void userKey_FallsBackToAddressForAnonymousRequests() {
+        GatewayFilter filter = filter(LocalRateLimiterGatewayFilterFactory.KeyType.USER, 1);
+
+        run(filter, exchange("10.0.0.1", null));
+        MockServerWebExchange again = run(filter, exchange("10.0.0.1", null));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, again.getResponse().getStatusCode());
+    }
+
+    private GatewayFilter filter(LocalRateLimiterGatewayFilterFactory.KeyType key, int limit) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        LocalRateLimiterGatewayFilterFactory factory =
+                new LocalRateLimiterGatewayFilterFactory(1_000, beanFactory.getBeanProvider(MeterRegistry.class));
+        return factory.apply(new LocalRateLimiterGatewayFilterFactory.Config()
+                .setKey(key)
+                .setLimit(limit)
+                .setPeriod(Duration.ofMinutes(1)));
+    }
+
+    private MockServerWebExchange run(GatewayFilter filter, MockServerWebExchange exchange) {
+        filter.filter(exchange, ex -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchange(String address, GatewayPrincipal principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/patients/1")
+                .remoteAddress(new InetSocketAddress(address, 40_000)));
+        if (principal != null) {
+            exchange.getAttributes().put(GatewayPrincipal.ATTRIBUTE, principal);
+        }
+        return exchange;
+    }
+}
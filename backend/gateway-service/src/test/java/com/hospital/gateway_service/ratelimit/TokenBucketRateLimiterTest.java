@@ -0,0 +1,64 @@
+package com.hospital.gateway_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void burst_IsAdmittedThenLimited() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, Duration.ofMinutes(1), 3, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+    }
+
+    @Test
+    void tokens_AreReplenishedOverTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, Duration.ofMinutes(1), 1, 100, now::get);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void rejectedRequests_DoNotDrainTheBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, Duration.ofMinutes(1), 1, 100, now::get);
+        limiter.tryAcquire("10.0.0.1");
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("10.0.0.1");
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void keys_HaveIndependentBucketsWithinBound() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 1, 10, now::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("bob"));
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+
+        assertTrue(limiter.size() <= 10);
+    }
+}
@@ -0,0 +1,162 @@
+package com.hospital.gateway_service.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes against local backends that answer, or never answer: a stalled backend must cost its own
+ * route a time limit or a bulkhead permit and nothing else.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway.jwt.secret=" + RouteResilienceTest.SECRET,
+        "gateway.jwt.legacy-hmac-until=2999-01-01T00:00:00Z",
+        "resilience4j.timelimiter.instances.billing-service.timeout-duration=300ms",
+        "resilience4j.timelimiter.instances.graphql-gateway.timeout-duration=5s",
+        "resilience4j.bulkhead.instances.graphql-gateway.max-concurrent-calls=1"
+})
+class RouteResilienceTest {
+
+    static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+
+    private static final AtomicInteger healthyRequests = new AtomicInteger();
+    private static final DisposableServer healthy = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> {
+                healthyRequests.incrementAndGet();
+                return response.header(HttpHeaders.CONTENT_TYPE, "application/json").sendString(Mono.just("[]"));
+            })
+            .bindNow();
+    private static final DisposableServer stalled = HttpServer.create()
+            .port(0)
+            .handle((request, response) -> Mono.never())
+            .bindNow();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        instance(registry, "patient-service", healthy);
+        instance(registry, "appointment-service", healthy);
+        instance(registry, "billing-service", stalled);
+        instance(registry, "graphql-api-gateway", stalled);
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        healthy.disposeNow();
+        stalled.disposeNow();
+    }
+
+    @Test
+    void stalledBackend_TimesOutWithStructuredError() {
+        webTestClient.get().uri("/api/billing/invoices")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Gateway Timeout")
+                .jsonPath("$.route").isEqualTo("billing-service");
+
+        webTestClient.get().uri("/api/patients")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void fullBulkhead_FailsFast() throws InterruptedException {
+        // Holds the route's only permit until the time limit
+        WebClient.create("http://localhost:" + port).get().uri("/graphql")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .retrieve()
+                .toBodilessEntity()
+                .subscribe(response -> { }, error -> { });
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("graphql-gateway");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bulkhead.getMetrics().getAvailableConcurrentCalls() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        webTestClient.mutate().responseTimeout(Duration.ofSeconds(2)).build()
+                .get().uri("/graphql")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+                .expectBody()
+                .jsonPath("$.route").isEqualTo("graphql-gateway");
+    }
+
+    @Test
+    void openCircuit_RejectsWithoutCallingBackend() {
+        webTestClient.get().uri("/api/appointments")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isOk();
+        int before = healthyRequests.get();
+        circuitBreakerRegistry.circuitBreaker("appointment-service").transitionToForcedOpenState();
+
+        webTestClient.get().uri("/api/appointments")
+                .header(HttpHeaders.AUTHORIZATION, bearer())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "10")
+                .expectBody()
+                .jsonPath("$.route").isEqualTo("appointment-service");
+        assertEquals(before, healthyRequests.get());
+    }
+
+    private static void instance(DynamicPropertyRegistry registry, String serviceId, DisposableServer server) {
+        String prefix = "spring.cloud.discovery.client.simple.instances." + serviceId + "[0].";
+        registry.add(prefix + "uri", () -> "http://localhost:" + server.port());
+        registry.add(prefix + "instance-id", () -> serviceId + "-1");
+    }
+
+    private static String bearer() {
+        long now = System.currentTimeMillis();
+        return "Bearer " + Jwts.builder()
+                .subject("patient@hospital.com")
+                .claim("uid", "patient-1")
+                .claim("role", "PATIENT")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,352 @@
+package com.hospital.gateway_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.reactive.SimpleReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.reactive.SimpleReactiveDiscoveryProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtAuthenticationGlobalFilterTest {
+
+    private static final String SECRET = "hospital-management-secret-key-for-jwt-token-generation-2024";
+    private static final String HMAC_UNTIL = Instant.now().plus(1, ChronoUnit.DAYS).toString();
+
+    private JwtAuthenticationGlobalFilter filter;
+    private AtomicReference<ServerWebExchange> forwarded;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationGlobalFilter(SECRET, HMAC_UNTIL, List.of("/api/auth/**"), disabledKeySource(),
+                noRevocations());
+        forwarded = new AtomicReference<>();
+    }
+
+    @Test
+    void validToken_PropagatesIdentityHeaders() {
+        UUID userId = UUID.randomUUID();
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(userId.toString(), "DOCTOR", 60_000)));
+
+        run(exchange);
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertEquals(userId.toString(), headers.getFirst(JwtAuthenticationGlobalFilter.USER_ID_HEADER));
+        assertEquals("doctor@hospital.com", headers.getFirst(JwtAuthenticationGlobalFilter.USER_EMAIL_HEADER));
+        assertEquals("DOCTOR", headers.getFirst(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER));
+        GatewayPrincipal principal = forwarded.get().getAttribute(GatewayPrincipal.ATTRIBUTE);
+        assertNotNull(principal);
+        assertEquals("DOCTOR", principal.role());
+    }
+
+    @Test
+    void spoofedIdentityHeaders_AreStripped() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/auth/login")
+                .header(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER, "ADMIN")
+                .header(JwtAuthenticationGlobalFilter.USER_EMAIL_HEADER, "admin@hospital.com"));
+
+        run(exchange);
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertNull(headers.getFirst(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER));
+        assertNull(headers.getFirst(JwtAuthenticationGlobalFilter.USER_EMAIL_HEADER));
+    }
+
+    @Test
+    void missingToken_OnProtectedPath_IsRejected() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/billing/invoices"));
+
+        run(exchange);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void expiredToken_IsRejected() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null, "PATIENT", -1_000)));
+
+        run(exchange);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals("Bearer error=\"invalid_token\"",
+                exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void refreshToken_IsNotAcceptedAsAccessToken() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null, null, 60_000)));
+
+        run(exchange);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void invalidToken_OnPublicPath_PassesThroughAnonymously() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/api/auth/login")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt"));
+
+        run(exchange);
+
+        assertNotNull(forwarded.get());
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(JwtAuthenticationGlobalFilter.USER_EMAIL_HEADER));
+    }
+
+    @Test
+    void asymmetricToken_IsVerifiedAgainstCachedJwks() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        JwksKeySource keySource = disabledKeySource();
+        keySource.update(jwks(keyPair, "key-1"));
+        filter = new JwtAuthenticationGlobalFilter("", "", List.of("/api/auth/**"), keySource, noRevocations());
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + signed(keyPair, "key-1")));
+
+        run(exchange);
+
+        assertEquals("DOCTOR", forwarded.get().getRequest().getHeaders()
+                .getFirst(JwtAuthenticationGlobalFilter.USER_ROLE_HEADER));
+    }
+
+    @Test
+    void unknownKeyId_RefreshesJwksOnce() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        AtomicInteger fetches = new AtomicInteger();
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            fetches.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(jwks(keyPair, "rotated"))
+                    .build());
+        });
+        JwksKeySource keySource = new JwksKeySource(webClient, discovery(List.of()),
+                "http://auth-service/.well-known/jwks.json", Duration.ofMinutes(5), Duration.ofMinutes(1));
+        filter = new JwtAuthenticationGlobalFilter("", "", List.of("/api/auth/**"), keySource, noRevocations());
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + signed(keyPair, "rotated")));
+        run(first);
+        assertNotNull(forwarded.get());
+
+        forwarded.set(null);
+        MockServerWebExchange bogus = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + signed(keyPair, "made-up")));
+        run(bogus);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, bogus.getResponse().getStatusCode());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void hmacToken_IsRejectedWithoutSharedSecret() {
+        filter = new JwtAuthenticationGlobalFilter("", "", List.of("/api/auth/**"), disabledKeySource(), noRevocations());
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null, "DOCTOR", 60_000)));
+
+        run(exchange);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void hmacToken_IsRejectedAfterCutOff() {
+        filter = new JwtAuthenticationGlobalFilter(SECRET, Instant.now().minusSeconds(1).toString(),
+                List.of("/api/auth/**"), disabledKeySource(), noRevocations());
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(null, "DOCTOR", 60_000)));
+
+        run(exchange);
+
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void sharedSecret_WithoutCutOff_IsRefused() {
+        assertThrows(IllegalStateException.class, () ->
+                new JwtAuthenticationGlobalFilter(SECRET, "", List.of("/api/auth/**"), disabledKeySource(),
+                        noRevocations()));
+    }
+
+    @Test
+    void emptyJwks_ClearsKeys() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        JwksKeySource keySource = disabledKeySource();
+        keySource.update(jwks(keyPair, "key-1"));
+
+        keySource.update("{\"keys\":[]}");
+
+        assertNull(keySource.key("key-1"));
+    }
+
+    @Test
+    void jwks_IsMergedAcrossInstances() {
+        KeyPair first = Jwts.SIG.RS256.keyPair().build();
+        KeyPair second = Jwts.SIG.RS256.keyPair().build();
+        Map<Integer, String> published = Map.of(8081, jwks(first, "key-1"), 8082, jwks(second, "key-2"));
+        Set<Integer> down = new HashSet<>();
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            int port = request.url().getPort();
+            if (down.contains(port)) {
+                return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(published.get(port))
+                    .build());
+        });
+        List<DefaultServiceInstance> instances = new ArrayList<>(List.of(
+                new DefaultServiceInstance("auth-service-1", "auth-service", "localhost", 8081, false),
+                new DefaultServiceInstance("auth-service-2", "auth-service", "localhost", 8082, false)));
+        JwksKeySource keySource = new JwksKeySource(webClient, discovery(instances),
+                "http://auth-service/.well-known/jwks.json", Duration.ofMinutes(5), Duration.ofSeconds(10));
+
+        keySource.refresh().block();
+        assertNotNull(keySource.key("key-1"));
+        assertNotNull(keySource.key("key-2"));
+
+        // An unreachable instance keeps its keys
+        down.add(8082);
+        keySource.refresh().block();
+        assertNotNull(keySource.key("key-2"));
+
+        // One that left the registry does not
+        instances.remove(1);
+        keySource.refresh().block();
+        assertNotNull(keySource.key("key-1"));
+        assertNull(keySource.key("key-2"));
+    }
+
+    @Test
+    void revokedToken_IsRejected() {
+        List<String> polls = new ArrayList<>();
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            polls.add(request.url().getQuery() + " " + request.headers().getFirst("X-Gateway-Secret"));
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"asOf\":\"2026-10-17T10:00:00Z\",\"revocations\":["
+                            + "{\"jti\":\"logged-out\",\"expiresAt\":\"" + Instant.now().plusSeconds(60) + "\"},"
+                            + "{\"jti\":\"expired\",\"expiresAt\":\"" + Instant.now().minusSeconds(60) + "\"}]}")
+                    .build());
+        });
+        RevokedTokens revokedTokens = new RevokedTokens(webClient, "http://auth-service/internal/revocations",
+                "gateway-secret", Duration.ofSeconds(10), 1_000, 0.01);
+        filter = new JwtAuthenticationGlobalFilter(SECRET, HMAC_UNTIL, List.of("/api/auth/**"), disabledKeySource(),
+                revokedTokens);
+
+        revokedTokens.poll().block();
+        revokedTokens.poll().block();
+
+        assertEquals(List.of("null gateway-secret", "since=2026-10-17T09:59:55Z gateway-secret"), polls);
+        assertEquals(1, revokedTokens.size());
+        MockServerWebExchange revoked = exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("logged-out", "DOCTOR")));
+        run(revoked);
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, revoked.getResponse().getStatusCode());
+
+        run(exchange(MockServerHttpRequest.get("/api/patients/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("still-valid", "DOCTOR"))));
+        assertNotNull(forwarded.get());
+    }
+
+    private static RevokedTokens noRevocations() {
+        return new RevokedTokens(WebClient.builder(), "", "", Duration.ofSeconds(10), 1_000, 0.01);
+    }
+
+    private static JwksKeySource disabledKeySource() {
+        return new JwksKeySource(WebClient.builder(), discovery(List.of()), "", Duration.ofMinutes(5), Duration.ofSeconds(10));
+    }
+
+    private static ReactiveDiscoveryClient discovery(List<DefaultServiceInstance> instances) {
+        SimpleReactiveDiscoveryProperties properties = new SimpleReactiveDiscoveryProperties();
+        properties.setInstances(Map.of("auth-service", instances));
+        return new SimpleReactiveDiscoveryClient(properties);
+    }
+
+    private static String jwks(KeyPair keyPair, String keyId) {
+        return "{\"keys\":[" + Jwks.json(Jwks.builder().key(keyPair.getPublic()).id(keyId).build()) + "]}";
+    }
+
+    private static String signed(KeyPair keyPair, String keyId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .subject("doctor@hospital.com")
+                .claim("role", "DOCTOR")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 60_000))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private void run(MockServerWebExchange exchange) {
+        filter.filter(exchange, ex -> {
+            forwarded.set(ex);
+            return ex.getResponse().setComplete();
+        }).block();
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String token(String tokenId, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .id(tokenId)
+                .subject("doctor@hospital.com")
+                .claim("role", role)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static String token(String userId, String role, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject("doctor@hospital.com")
+                .claim("uid", userId)
+                .claim("role", role)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}